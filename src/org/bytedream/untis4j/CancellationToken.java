@@ -0,0 +1,280 @@
+package org.bytedream.untis4j;
+
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cancels requests cooperatively and bounds them with a deadline.
+ *
+ * <p>All requests which are sent inside {@link Session#withCancellation(CancellationToken, Session.Request)} are checked against the token:
+ * requests which wait for a free slot of the {@link RequestLimiter} stop waiting, open http connections get disconnected and reading or parsing the response stops.
+ * A cancelled request throws {@link InterruptedIOException}, a request whose deadline passed throws {@link SocketTimeoutException} (which inherits from InterruptedIOException).
+ * The deadline is enforced by a shared daemon timer thread, which disconnects the open connections of the token when it passes</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class CancellationToken {
+
+    private final long deadline;
+    private final boolean hasDeadline;
+
+    private volatile boolean cancelled = false;
+    // if the listeners were run because the deadline passed, guarded by listeners
+    private boolean expired = false;
+    private ScheduledFuture<?> expiry = null;
+    private final Set<Runnable> listeners = new LinkedHashSet<>();
+    // tokens this token follows, only set for linked tokens of nested calls. Linked tokens never follow other linked tokens, but the tokens those follow
+    private final CancellationToken[] linked;
+    private final Runnable followLinked = this::followLinked;
+
+    /**
+     * Initialize the {@link CancellationToken} class without a deadline
+     *
+     * @since 1.1
+     */
+    public CancellationToken() {
+        this.deadline = 0;
+        this.hasDeadline = false;
+        this.linked = new CancellationToken[0];
+    }
+
+    /**
+     * Initialize the {@link CancellationToken} class with a deadline
+     *
+     * @param timeout time from now after which the requests time out
+     *
+     * @since 1.1
+     */
+    public CancellationToken(Duration timeout) {
+        this.deadline = System.nanoTime() + timeout.toNanos();
+        this.hasDeadline = true;
+        this.linked = new CancellationToken[0];
+    }
+
+    /**
+     * Initialize a token which is cancelled if one of the tokens gets cancelled and has the earlier deadline of both.
+     * Is used for nested calls, so that the inner token doesn't drop the deadline of the outer one. Must be {@link CancellationToken#unlink() unlinked} after the call
+     *
+     * @param token the token of the inner call
+     * @param parent the token of the outer call
+     */
+    CancellationToken(CancellationToken token, CancellationToken parent) {
+        this(merge(token.getOriginals(), parent.getOriginals()));
+    }
+
+    private CancellationToken(CancellationToken[] linked) {
+        long remaining = Long.MAX_VALUE;
+        for (CancellationToken linkedToken : linked) {
+            remaining = Math.min(remaining, linkedToken.remainingNanos());
+        }
+        this.hasDeadline = remaining != Long.MAX_VALUE;
+        this.deadline = hasDeadline ? System.nanoTime() + remaining : 0;
+        this.linked = linked;
+        for (CancellationToken linkedToken : linked) {
+            linkedToken.addListener(followLinked);
+        }
+    }
+
+    /**
+     * Cancels all requests which use this token. Requests which are sent afterwards fail immediately
+     *
+     * @since 1.1
+     */
+    public void cancel() {
+        List<Runnable> toRun;
+        synchronized (listeners) {
+            if (cancelled) {
+                return;
+            }
+            cancelled = true;
+            if (expiry != null) {
+                expiry.cancel(false);
+            }
+            toRun = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : toRun) {
+            listener.run();
+        }
+    }
+
+    /**
+     * Returns if the token was cancelled
+     *
+     * @return if the token was cancelled
+     *
+     * @since 1.1
+     */
+    public boolean isCancelled() {
+        return cancelled;
+    }
+
+    /**
+     * Returns if the deadline passed
+     *
+     * @return if the deadline passed, {@code false} if the token has no deadline
+     *
+     * @since 1.1
+     */
+    public boolean isExpired() {
+        return hasDeadline && deadline - System.nanoTime() <= 0;
+    }
+
+    /**
+     * Returns the time until the deadline
+     *
+     * @return the remaining time, {@code null} if the token has no deadline
+     *
+     * @since 1.1
+     */
+    public Duration getRemaining() {
+        return hasDeadline ? Duration.ofNanos(Math.max(0, deadline - System.nanoTime())) : null;
+    }
+
+    /**
+     * Throws if the token was cancelled or the deadline passed
+     *
+     * @throws InterruptedIOException if the token was cancelled, or {@link SocketTimeoutException} if the deadline passed
+     *
+     * @since 1.1
+     */
+    public void check() throws InterruptedIOException {
+        if (cancelled) {
+            throw new InterruptedIOException("The request was cancelled");
+        } else if (isExpired()) {
+            throw new SocketTimeoutException("The deadline of the request passed");
+        }
+    }
+
+    /**
+     * Returns the remaining nanoseconds until the deadline
+     *
+     * @return the remaining nanoseconds, {@link Long#MAX_VALUE} if the token has no deadline
+     */
+    long remainingNanos() {
+        return hasDeadline ? deadline - System.nanoTime() : Long.MAX_VALUE;
+    }
+
+    /**
+     * Adds a listener which is run when the token gets cancelled or the deadline passes. If that already happened, the listener is run immediately.
+     * Listeners which are run because of the deadline are run on the timer thread
+     *
+     * @param listener the listener
+     */
+    void addListener(Runnable listener) {
+        synchronized (listeners) {
+            if (!cancelled && !expired) {
+                listeners.add(listener);
+                // the timer is only started for tokens which are actually used by a request
+                if (hasDeadline && expiry == null) {
+                    scheduleExpiry();
+                }
+                return;
+            }
+        }
+        listener.run();
+    }
+
+    private void scheduleExpiry() {
+        expiry = Timer.EXECUTOR.schedule(this::expire, Math.max(0, remainingNanos()), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Runs the listeners when the deadline passed, without marking the token as cancelled. So {@link CancellationToken#check()} still throws {@link SocketTimeoutException}
+     */
+    private void expire() {
+        List<Runnable> toRun;
+        synchronized (listeners) {
+            if (cancelled || expired) {
+                return;
+            } else if (!isExpired()) {
+                scheduleExpiry();
+                return;
+            }
+            expired = true;
+            toRun = new ArrayList<>(listeners);
+            listeners.clear();
+        }
+        for (Runnable listener : toRun) {
+            listener.run();
+        }
+    }
+
+    private CancellationToken[] getOriginals() {
+        return linked.length == 0 ? new CancellationToken[]{this} : linked;
+    }
+
+    private static CancellationToken[] merge(CancellationToken[] tokens, CancellationToken[] parents) {
+        Set<CancellationToken> merged = new LinkedHashSet<>(Arrays.asList(tokens));
+        merged.addAll(Arrays.asList(parents));
+        return merged.toArray(new CancellationToken[0]);
+    }
+
+    private void followLinked() {
+        for (CancellationToken linkedToken : linked) {
+            if (linkedToken.isCancelled()) {
+                cancel();
+                return;
+            }
+        }
+        // the deadline of a linked token passed, this token has the same or an earlier one
+        expire();
+    }
+
+    /**
+     * Returns a new token which follows the same tokens as this one. Is used for requests which are sent after the call which created this token returned and {@link CancellationToken#unlink() unlinked} it.
+     * The returned token must be unlinked too, unless it's this token because it isn't linked
+     *
+     * @return the new linked token, or this token if it isn't linked
+     */
+    CancellationToken relink() {
+        return linked.length == 0 ? this : new CancellationToken(linked);
+    }
+
+    /**
+     * Stops following the tokens this token was linked to
+     */
+    void unlink() {
+        for (CancellationToken linkedToken : linked) {
+            linkedToken.removeListener(followLinked);
+        }
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener the listener
+     */
+    void removeListener(Runnable listener) {
+        synchronized (listeners) {
+            listeners.remove(listener);
+        }
+    }
+
+    /**
+     * Holds the timer thread which enforces the deadlines, it's only created on first use
+     */
+    private static final class Timer {
+
+        private static final ScheduledThreadPoolExecutor EXECUTOR = new ScheduledThreadPoolExecutor(1, runnable -> {
+            Thread thread = new Thread(runnable, "untis4j-deadline");
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        static {
+            EXECUTOR.setRemoveOnCancelPolicy(true);
+        }
+    }
+
+}
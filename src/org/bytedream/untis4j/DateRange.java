@@ -0,0 +1,213 @@
+package org.bytedream.untis4j;
+
+import java.time.DateTimeException;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Range of dates, both the start and the end date are inclusive
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class DateRange {
+
+    private final LocalDate start;
+    private final LocalDate end;
+
+    /**
+     * Initialize the {@link DateRange} class
+     *
+     * @param start first date of the range
+     * @param end last date of the range
+     * @throws DateTimeException if {@code end} is before {@code start}
+     *
+     * @since 1.1
+     */
+    public DateRange(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new DateTimeException("The end date (" + end + ") must not be before the start date (" + start + ")");
+        }
+        this.start = start;
+        this.end = end;
+    }
+
+    /**
+     * Returns the first date of the range
+     *
+     * @return the first date of the range
+     *
+     * @since 1.1
+     */
+    public LocalDate getStart() {
+        return start;
+    }
+
+    /**
+     * Returns the last date of the range
+     *
+     * @return the last date of the range
+     *
+     * @since 1.1
+     */
+    public LocalDate getEnd() {
+        return end;
+    }
+
+    /**
+     * Returns the number of days in the range
+     *
+     * @return the number of days in the range
+     *
+     * @since 1.1
+     */
+    public long getDays() {
+        return end.toEpochDay() - start.toEpochDay() + 1;
+    }
+
+    /**
+     * Checks if the range contains the given date
+     *
+     * @param date date to check
+     * @return {@code true} if the range contains the date
+     *
+     * @since 1.1
+     */
+    public boolean contains(LocalDate date) {
+        return !date.isBefore(start) && !date.isAfter(end);
+    }
+
+    /**
+     * Returns the parts of this range which aren't covered by any of the given ranges
+     *
+     * @param ranges ranges to remove, may overlap
+     * @return the remaining parts, ordered by date
+     *
+     * @since 1.1
+     */
+    public List<DateRange> subtract(List<DateRange> ranges) {
+        DateRange[] sorted = ranges.toArray(new DateRange[0]);
+        Arrays.sort(sorted, Comparator.comparing(DateRange::getStart));
+
+        List<DateRange> remaining = new ArrayList<>();
+        LocalDate next = start;
+        for (DateRange range : sorted) {
+            if (next.isAfter(end)) {
+                break;
+            } else if (range.end.isBefore(next)) {
+                continue;
+            }
+
+            if (range.start.isAfter(next)) {
+                remaining.add(new DateRange(next, min(range.start.minusDays(1), end)));
+            }
+            next = range.end.plusDays(1);
+        }
+        if (!next.isAfter(end)) {
+            remaining.add(new DateRange(next, end));
+        }
+
+        return remaining;
+    }
+
+    /**
+     * Returns the parts of this range which are covered by at least one of the given ranges
+     *
+     * @param ranges ranges to keep, may overlap
+     * @return the covered parts, ordered by date
+     *
+     * @since 1.1
+     */
+    public List<DateRange> intersect(List<DateRange> ranges) {
+        List<DateRange> intersection = new ArrayList<>();
+        LocalDate next = start;
+
+        for (DateRange uncovered : subtract(ranges)) {
+            if (uncovered.start.isAfter(next)) {
+                intersection.add(new DateRange(next, uncovered.start.minusDays(1)));
+            }
+            next = uncovered.end.plusDays(1);
+        }
+        if (!next.isAfter(end)) {
+            intersection.add(new DateRange(next, end));
+        }
+
+        return intersection;
+    }
+
+    /**
+     * Splits the range at the boundaries of calendar weeks (weeks end on sunday) or months
+     *
+     * @param unit {@link ChronoUnit#DAYS}, {@link ChronoUnit#WEEKS} or {@link ChronoUnit#MONTHS}
+     * @return the chunks, ordered by date
+     * @throws IllegalArgumentException if {@code unit} isn't supported
+     *
+     * @since 1.1
+     */
+    public List<DateRange> split(ChronoUnit unit) {
+        List<DateRange> chunks = new ArrayList<>();
+        LocalDate chunkStart = start;
+
+        while (!chunkStart.isAfter(end)) {
+            LocalDate chunkEnd;
+            switch (unit) {
+                case DAYS:
+                    chunkEnd = chunkStart;
+                    break;
+                case WEEKS:
+                    chunkEnd = chunkStart.with(TemporalAdjusters.nextOrSame(DayOfWeek.SUNDAY));
+                    break;
+                case MONTHS:
+                    chunkEnd = chunkStart.with(TemporalAdjusters.lastDayOfMonth());
+                    break;
+                default:
+                    throw new IllegalArgumentException("Ranges can't be split into " + unit);
+            }
+            chunkEnd = min(chunkEnd, end);
+            chunks.add(new DateRange(chunkStart, chunkEnd));
+            chunkStart = chunkEnd.plusDays(1);
+        }
+
+        return chunks;
+    }
+
+    private static LocalDate min(LocalDate a, LocalDate b) {
+        return a.isBefore(b) ? a : b;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        } else if (!(o instanceof DateRange)) {
+            return false;
+        }
+        DateRange other = (DateRange) o;
+        return start.equals(other.start) && end.equals(other.end);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(start, end);
+    }
+
+    /**
+     * Returns the range as string
+     *
+     * @return the range as string, e.g. {@code 2020-09-01/2020-09-07}
+     *
+     * @since 1.1
+     */
+    @Override
+    public String toString() {
+        return start + "/" + end;
+    }
+
+}
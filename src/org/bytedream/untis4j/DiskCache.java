@@ -0,0 +1,554 @@
+package org.bytedream.untis4j;
+
+import org.bytedream.untis4j.responseObjects.Departments;
+import org.bytedream.untis4j.responseObjects.Holidays;
+import org.bytedream.untis4j.responseObjects.Klassen;
+import org.bytedream.untis4j.responseObjects.Rooms;
+import org.bytedream.untis4j.responseObjects.SchoolYears;
+import org.bytedream.untis4j.responseObjects.Subjects;
+import org.bytedream.untis4j.responseObjects.Teachers;
+import org.bytedream.untis4j.responseObjects.Timetable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.URLEncoder;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Durable cache for session responses, which stores masterdata lists and timetables in a compact binary format on disk.
+ *
+ * <p>Every server, school and user has its own directory, because the results depend on the rights of the user. Every element (e.g. the klassen or the timetable of a teacher) has its own file.
+ * Timetables are stored in one file per day, so a request for days which were all requested before is answered from the files and storing a time period only writes its own days.
+ * The cache remembers the latest import time of the school, if it changed all files of the user are deleted (see {@link DiskCache#revalidate(Infos, long)}).
+ * Files are replaced atomically, unreadable files are treated like missing ones</p>
+ *
+ * @see Session#setDiskCache(DiskCache)
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class DiskCache {
+
+    private static final int MAGIC = 0x55344A43;
+    private static final byte VERSION = 2;
+    private static final String IMPORT_TIME = "importTime";
+
+    private static final Codec<Long> IMPORT_TIME_CODEC = new Codec<Long>() {
+        @Override
+        public void write(DataOutput output, Long importTime) throws IOException {
+            output.writeLong(importTime);
+        }
+
+        @Override
+        public Long read(DataInput input) throws IOException {
+            return input.readLong();
+        }
+    };
+
+    static final Codec<Departments> DEPARTMENTS = new Codec<Departments>() {
+        @Override
+        public void write(DataOutput output, Departments departments) throws IOException {
+            writeVarInt(output, departments.size());
+            for (Departments.DepartmentObject department : departments) {
+                writeString(output, department.getName());
+                output.writeInt(department.getId());
+                writeString(output, department.getLongName());
+            }
+        }
+
+        @Override
+        public Departments read(DataInput input) throws IOException {
+            Departments departments = new Departments();
+            for (int i = readVarInt(input); i > 0; i--) {
+                departments.add(new Departments.DepartmentObject(readString(input), input.readInt(), readString(input)));
+            }
+            return departments;
+        }
+    };
+
+    static final Codec<Holidays> HOLIDAYS = new Codec<Holidays>() {
+        @Override
+        public void write(DataOutput output, Holidays holidays) throws IOException {
+            writeVarInt(output, holidays.size());
+            for (Holidays.HolidaysObject holiday : holidays) {
+                writeString(output, holiday.getName());
+                writeDate(output, holiday.getStartDate());
+                writeDate(output, holiday.getEndDate());
+                output.writeInt(holiday.getId());
+                writeString(output, holiday.getLongName());
+            }
+        }
+
+        @Override
+        public Holidays read(DataInput input) throws IOException {
+            Holidays holidays = new Holidays();
+            for (int i = readVarInt(input); i > 0; i--) {
+                holidays.add(new Holidays.HolidaysObject(readString(input), readDate(input), readDate(input), input.readInt(), readString(input)));
+            }
+            return holidays;
+        }
+    };
+
+    static final Codec<Klassen> KLASSEN = new Codec<Klassen>() {
+        @Override
+        public void write(DataOutput output, Klassen klassen) throws IOException {
+            writeVarInt(output, klassen.size());
+            for (Klassen.KlasseObject klasse : klassen) {
+                writeString(output, klasse.getName());
+                output.writeBoolean(klasse.isActive());
+                output.writeInt(klasse.getId());
+                writeString(output, klasse.getLongName());
+            }
+        }
+
+        @Override
+        public Klassen read(DataInput input) throws IOException {
+            Klassen klassen = new Klassen();
+            for (int i = readVarInt(input); i > 0; i--) {
+                klassen.add(new Klassen.KlasseObject(readString(input), input.readBoolean(), input.readInt(), readString(input)));
+            }
+            return klassen;
+        }
+    };
+
+    static final Codec<Rooms> ROOMS = new Codec<Rooms>() {
+        @Override
+        public void write(DataOutput output, Rooms rooms) throws IOException {
+            writeVarInt(output, rooms.size());
+            for (Rooms.RoomObject room : rooms) {
+                writeString(output, room.getName());
+                output.writeBoolean(room.isActive());
+                output.writeInt(room.getId());
+                writeString(output, room.getBuilding());
+                writeString(output, room.getLongName());
+            }
+        }
+
+        @Override
+        public Rooms read(DataInput input) throws IOException {
+            Rooms rooms = new Rooms();
+            for (int i = readVarInt(input); i > 0; i--) {
+                rooms.add(new Rooms.RoomObject(readString(input), input.readBoolean(), input.readInt(), readString(input), readString(input)));
+            }
+            return rooms;
+        }
+    };
+
+    static final Codec<SchoolYears> SCHOOL_YEARS = new Codec<SchoolYears>() {
+        @Override
+        public void write(DataOutput output, SchoolYears schoolYears) throws IOException {
+            writeVarInt(output, schoolYears.size());
+            for (SchoolYears.SchoolYearObject schoolYear : schoolYears) {
+                writeString(output, schoolYear.getName());
+                writeDate(output, schoolYear.getStartDate());
+                writeDate(output, schoolYear.getEndDate());
+                output.writeInt(schoolYear.getId());
+            }
+        }
+
+        @Override
+        public SchoolYears read(DataInput input) throws IOException {
+            SchoolYears schoolYears = new SchoolYears();
+            for (int i = readVarInt(input); i > 0; i--) {
+                schoolYears.add(new SchoolYears.SchoolYearObject(readString(input), readDate(input), readDate(input), input.readInt()));
+            }
+            return schoolYears;
+        }
+    };
+
+    static final Codec<Subjects> SUBJECTS = new Codec<Subjects>() {
+        @Override
+        public void write(DataOutput output, Subjects subjects) throws IOException {
+            writeVarInt(output, subjects.size());
+            for (Subjects.SubjectObject subject : subjects) {
+                writeString(output, subject.getName());
+                output.writeBoolean(subject.isActive());
+                output.writeInt(subject.getId());
+                writeString(output, subject.getAlternateName());
+                writeString(output, subject.getBackColor());
+                writeString(output, subject.getForeColor());
+                writeString(output, subject.getLongName());
+            }
+        }
+
+        @Override
+        public Subjects read(DataInput input) throws IOException {
+            Subjects subjects = new Subjects();
+            for (int i = readVarInt(input); i > 0; i--) {
+                subjects.add(new Subjects.SubjectObject(readString(input), input.readBoolean(), input.readInt(),
+                        readString(input), readString(input), readString(input), readString(input)));
+            }
+            return subjects;
+        }
+    };
+
+    static final Codec<Teachers> TEACHERS = new Codec<Teachers>() {
+        @Override
+        public void write(DataOutput output, Teachers teachers) throws IOException {
+            writeVarInt(output, teachers.size());
+            for (Teachers.TeacherObject teacher : teachers) {
+                writeString(output, teacher.getName());
+                output.writeBoolean(teacher.isActive());
+                output.writeInt(teacher.getId());
+                writeString(output, teacher.getTitle());
+                writeString(output, teacher.getForename());
+                writeString(output, teacher.getLongName());
+            }
+        }
+
+        @Override
+        public Teachers read(DataInput input) throws IOException {
+            Teachers teachers = new Teachers();
+            for (int i = readVarInt(input); i > 0; i--) {
+                teachers.add(new Teachers.TeacherObject(readString(input), input.readBoolean(), input.readInt(),
+                        readString(input), readString(input), readString(input)));
+            }
+            return teachers;
+        }
+    };
+
+    /**
+     * Returns the codec of the lessons of one day. The date isn't stored per lesson, because it's the same for all lessons of the file
+     */
+    private static Codec<Timetable> timetableDay(LocalDate date) {
+        return new Codec<Timetable>() {
+            @Override
+            public void write(DataOutput output, Timetable timetable) throws IOException {
+                writeVarInt(output, timetable.size());
+                for (Timetable.Lesson lesson : timetable) {
+                    output.writeShort(lesson.getStartTime().toSecondOfDay() / 60);
+                    output.writeShort(lesson.getEndTime().toSecondOfDay() / 60);
+                    writeIds(output, lesson.getKlassenIds());
+                    writeIds(output, lesson.getTeacherIds());
+                    writeIds(output, lesson.getRoomIds());
+                    writeIds(output, lesson.getSubjectIds());
+                    output.writeByte(lesson.getCode() == null ? 0 : lesson.getCode().ordinal() + 1);
+                    writeString(output, lesson.getActivityType());
+                }
+            }
+
+            @Override
+            public Timetable read(DataInput input) throws IOException {
+                Timetable timetable = new Timetable();
+                int size = readVarInt(input);
+                timetable.ensureCapacity(size);
+                for (int i = 0; i < size; i++) {
+                    LocalTime startTime = LocalTime.ofSecondOfDay(input.readShort() * 60);
+                    LocalTime endTime = LocalTime.ofSecondOfDay(input.readShort() * 60);
+                    IntSet klassenIds = readIds(input);
+                    IntSet teacherIds = readIds(input);
+                    IntSet roomIds = readIds(input);
+                    IntSet subjectIds = readIds(input);
+                    int code = input.readByte();
+                    timetable.add(new Timetable.Lesson(date, startTime, endTime, klassenIds, teacherIds, roomIds, subjectIds,
+                            code == 0 ? null : UntisUtils.LessonCode.values()[code - 1], readString(input)));
+                }
+                return timetable;
+            }
+        };
+    }
+
+    private final Path directory;
+    // the files are replaced atomically, so loads and stores only exclude the deletion of all files of a user
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    /**
+     * Initialize the {@link DiskCache} class
+     *
+     * @param directory directory in which the cache files are stored, is created if it doesn't exist
+     *
+     * @since 1.1
+     */
+    public DiskCache(Path directory) {
+        this.directory = directory;
+    }
+
+    /**
+     * Returns the directory in which the cache files are stored
+     *
+     * @return the directory in which the cache files are stored
+     *
+     * @since 1.1
+     */
+    public Path getDirectory() {
+        return directory;
+    }
+
+    /**
+     * Compares the latest import time of a school with the one the cache was built with and deletes all files of the user if they differ
+     *
+     * @param infos infos with the server, school and username
+     * @param latestImportTime the current latest import time of the school
+     * @return {@code true} if the cached files are still valid
+     * @throws IOException if an IO Exception occurs while accessing the files
+     *
+     * @since 1.1
+     */
+    public boolean revalidate(Infos infos, long latestImportTime) throws IOException {
+        lock.writeLock().lock();
+        try {
+            Long cachedImportTime = load(getFile(infos, IMPORT_TIME), IMPORT_TIME_CODEC);
+
+            if (cachedImportTime != null && cachedImportTime == latestImportTime) {
+                return true;
+            }
+
+            deleteFiles(getUserDirectory(infos));
+            store(getFile(infos, IMPORT_TIME), IMPORT_TIME_CODEC, latestImportTime);
+            return false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Deletes all cached files of a user
+     *
+     * @param infos infos with the server, school and username
+     * @throws IOException if an IO Exception occurs while deleting the files
+     *
+     * @since 1.1
+     */
+    public void clear(Infos infos) throws IOException {
+        lock.writeLock().lock();
+        try {
+            deleteFiles(getUserDirectory(infos));
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Loads a cached element
+     *
+     * @return the cached element, {@code null} if it isn't cached or can't be read
+     */
+    <T> T load(Infos infos, String element, Codec<T> codec) throws IOException {
+        lock.readLock().lock();
+        try {
+            return load(getFile(infos, element), codec);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Stores an element, replacing the cached one
+     */
+    <T> void store(Infos infos, String element, Codec<T> codec, T value) throws IOException {
+        lock.readLock().lock();
+        try {
+            store(getFile(infos, element), codec, value);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Loads the cached lessons of an element for a time period
+     *
+     * @return the cached lessons, {@code null} if not all days of the time period are cached
+     */
+    Timetable loadTimetable(Infos infos, UntisUtils.ElementType elementType, int id, LocalDate start, LocalDate end) throws IOException {
+        Path timetableDirectory = getTimetableDirectory(infos, elementType, id);
+        Timetable timetable = new Timetable();
+
+        lock.readLock().lock();
+        try {
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                Timetable day = load(timetableDirectory.resolve(date.toEpochDay() + ".bin"), timetableDay(date));
+                if (day == null) {
+                    return null;
+                }
+                timetable.addAll(day);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+        return timetable;
+    }
+
+    /**
+     * Stores the lessons of an element for a time period, every day is stored in its own file. The cached lessons of other days are kept
+     */
+    void storeTimetable(Infos infos, UntisUtils.ElementType elementType, int id, LocalDate start, LocalDate end, Timetable timetable) throws IOException {
+        Path timetableDirectory = getTimetableDirectory(infos, elementType, id);
+        Timetable sorted = new Timetable();
+        sorted.addAll(timetable);
+        sorted.sortByDateAndTime();
+
+        lock.readLock().lock();
+        try {
+            int i = 0;
+            for (LocalDate date = start; !date.isAfter(end); date = date.plusDays(1)) {
+                while (i < sorted.size() && sorted.get(i).getDate().isBefore(date)) {
+                    i++;
+                }
+                Timetable day = new Timetable();
+                for (; i < sorted.size() && sorted.get(i).getDate().equals(date); i++) {
+                    day.add(sorted.get(i));
+                }
+                // days without lessons are stored too, so that they count as cached
+                store(timetableDirectory.resolve(date.toEpochDay() + ".bin"), timetableDay(date), day);
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <T> T load(Path file, Codec<T> codec) throws IOException {
+        try (InputStream inputStream = Files.newInputStream(file)) {
+            DataInputStream input = new DataInputStream(new BufferedInputStream(inputStream));
+            if (input.readInt() != MAGIC || input.readByte() != VERSION) {
+                return null;
+            }
+            return codec.read(input);
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            // truncated, malformed or unreadable file, it gets replaced by the next store
+            try {
+                Files.deleteIfExists(file);
+            } catch (IOException ignored) {
+            }
+            return null;
+        }
+    }
+
+    private static <T> void store(Path file, Codec<T> codec, T value) throws IOException {
+        Files.createDirectories(file.getParent());
+
+        // the files are written to a temporary file and moved, so concurrent stores of the same file don't need a lock
+        Path temporaryFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (OutputStream outputStream = Files.newOutputStream(temporaryFile)) {
+                DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream));
+                output.writeInt(MAGIC);
+                output.writeByte(VERSION);
+                codec.write(output, value);
+                output.flush();
+            }
+            Files.move(temporaryFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temporaryFile);
+        }
+    }
+
+    private static void deleteFiles(Path directory) throws IOException {
+        if (!Files.isDirectory(directory)) {
+            return;
+        }
+
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (Files.isDirectory(file)) {
+                    deleteFiles(file);
+                }
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+
+    private Path getTimetableDirectory(Infos infos, UntisUtils.ElementType elementType, int id) {
+        return getUserDirectory(infos).resolve("timetable-" + elementType.name().toLowerCase() + "-" + id);
+    }
+
+    private Path getUserDirectory(Infos infos) {
+        // length prefixed like the response cache keys of the session
+        String username = infos.getUsername();
+        return directory.resolve(encode(infos.getServer())).resolve(encode(infos.getSchoolName())).resolve(encode(username.length() + ":" + username));
+    }
+
+    private Path getFile(Infos infos, String element) {
+        return getUserDirectory(infos).resolve(element + ".bin");
+    }
+
+    private static String encode(String name) {
+        try {
+            return URLEncoder.encode(name, "UTF-8").replace("*", "%2A");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void writeVarInt(DataOutput output, int value) throws IOException {
+        while ((value & ~0x7F) != 0) {
+            output.writeByte((value & 0x7F) | 0x80);
+            value >>>= 7;
+        }
+        output.writeByte(value);
+    }
+
+    private static int readVarInt(DataInput input) throws IOException {
+        int value = 0;
+        for (int shift = 0; shift < 35; shift += 7) {
+            byte b = input.readByte();
+            value |= (b & 0x7F) << shift;
+            if (b >= 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed cache file");
+    }
+
+    private static void writeString(DataOutput output, String value) throws IOException {
+        output.writeBoolean(value != null);
+        if (value != null) {
+            output.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput input) throws IOException {
+        return input.readBoolean() ? input.readUTF() : null;
+    }
+
+    private static void writeDate(DataOutput output, LocalDate date) throws IOException {
+        output.writeInt((int) date.toEpochDay());
+    }
+
+    private static LocalDate readDate(DataInput input) throws IOException {
+        return LocalDate.ofEpochDay(input.readInt());
+    }
+
+    private static void writeIds(DataOutput output, IntSet ids) throws IOException {
+        writeVarInt(output, ids.size());
+        for (int i = 0; i < ids.size(); i++) {
+            writeVarInt(output, ids.get(i));
+        }
+    }
+
+    private static IntSet readIds(DataInput input) throws IOException {
+        int[] ids = new int[readVarInt(input)];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = readVarInt(input);
+        }
+        return IntSet.of(ids);
+    }
+
+    /**
+     * Converts cached values from and to their binary representation
+     */
+    interface Codec<T> {
+
+        void write(DataOutput output, T value) throws IOException;
+
+        T read(DataInput input) throws IOException;
+    }
+
+}
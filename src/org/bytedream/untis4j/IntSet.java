@@ -0,0 +1,264 @@
+package org.bytedream.untis4j;
+
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+/**
+ * Compact immutable set of primitive ints.
+ *
+ * <p>The values are stored as a sorted {@code int[]} without duplicates, so a set with one or two values costs about as much as a single boxed {@code Integer} in a {@code HashSet}.
+ * The primitive methods ({@link IntSet#contains(int)}, {@link IntSet#intersects(IntSet)}, ...) never box, the {@link Set} methods are only there to keep {@link IntSet} usable as a normal {@code Set<Integer>}</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class IntSet extends AbstractSet<Integer> {
+
+    /**
+     * The shared empty set
+     *
+     * @since 1.1
+     */
+    public static final IntSet EMPTY = new IntSet(new int[0]);
+
+    private final int[] values;
+
+    private IntSet(int[] values) {
+        this.values = values;
+    }
+
+    /**
+     * Returns a set which contains the given values
+     *
+     * @param values values of the set, may be unsorted and contain duplicates. The array is not used after this method has returned
+     * @return a set which contains the given values
+     *
+     * @since 1.1
+     */
+    public static IntSet of(int... values) {
+        return of(values, values.length);
+    }
+
+    /**
+     * Returns a set which contains the first {@code length} values of the given array
+     *
+     * @param values values of the set, may be unsorted and contain duplicates. The array is not used after this method has returned
+     * @param length number of values to use
+     * @return a set which contains the given values
+     *
+     * @since 1.1
+     */
+    public static IntSet of(int[] values, int length) {
+        return ofRange(values, 0, length);
+    }
+
+    /**
+     * Returns a set which contains the values of the given array from {@code from} (inclusive) to {@code to} (exclusive)
+     *
+     * @param values values of the set, may be unsorted and contain duplicates. The array is not used after this method has returned
+     * @param from index of the first value to use
+     * @param to index after the last value to use
+     * @return a set which contains the given values
+     *
+     * @since 1.1
+     */
+    public static IntSet ofRange(int[] values, int from, int to) {
+        if (from == to) {
+            return EMPTY;
+        }
+
+        int[] sorted = Arrays.copyOfRange(values, from, to);
+        Arrays.sort(sorted);
+
+        int size = 1;
+        for (int i = 1; i < sorted.length; i++) {
+            if (sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+
+        return new IntSet(size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    /**
+     * Returns a set which contains the values of the given collection
+     *
+     * @param collection collection to copy. If it's already an {@link IntSet}, it gets returned as it is
+     * @return a set which contains the values of the given collection
+     *
+     * @since 1.1
+     */
+    public static IntSet copyOf(Collection<Integer> collection) {
+        if (collection instanceof IntSet) {
+            return (IntSet) collection;
+        }
+
+        int[] values = new int[collection.size()];
+        int i = 0;
+        for (int value : collection) {
+            values[i++] = value;
+        }
+
+        return of(values, i);
+    }
+
+    /**
+     * Checks if the set contains the given value
+     *
+     * @param value value to check
+     * @return {@code true} if the set contains the value
+     *
+     * @since 1.1
+     */
+    public boolean contains(int value) {
+        switch (values.length) {
+            case 0:
+                return false;
+            case 1:
+                return values[0] == value;
+            case 2:
+                return values[0] == value || values[1] == value;
+            default:
+                return Arrays.binarySearch(values, value) >= 0;
+        }
+    }
+
+    /**
+     * Checks if this set and the given set have at least one value in common
+     *
+     * @param other set to check
+     * @return {@code true} if the two sets have a same value, {@code false} if not
+     *
+     * @since 1.1
+     */
+    public boolean intersects(IntSet other) {
+        int[] otherValues = other.values;
+        int i = 0;
+        int j = 0;
+
+        while (i < values.length && j < otherValues.length) {
+            if (values[i] == otherValues[j]) {
+                return true;
+            } else if (values[i] < otherValues[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if this set contains all values of the given set
+     *
+     * @param other set to check
+     * @return {@code true} if this set contains every value of {@code other}
+     *
+     * @since 1.1
+     */
+    public boolean containsAll(IntSet other) {
+        int[] otherValues = other.values;
+        if (otherValues.length > values.length) {
+            return false;
+        }
+
+        int i = 0;
+        for (int otherValue : otherValues) {
+            while (i < values.length && values[i] < otherValue) {
+                i++;
+            }
+            if (i == values.length || values[i] != otherValue) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the value at the given position. The values are sorted ascending
+     *
+     * @param index position of the value
+     * @return the value at the given position
+     *
+     * @since 1.1
+     */
+    public int get(int index) {
+        return values[index];
+    }
+
+    /**
+     * Returns a copy of the values as sorted {@code int[]}
+     *
+     * @return a copy of the values
+     *
+     * @since 1.1
+     */
+    public int[] toIntArray() {
+        return values.clone();
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return values.length == 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return o instanceof Integer && contains(((Integer) o).intValue());
+    }
+
+    @Override
+    public boolean containsAll(Collection<?> c) {
+        if (c instanceof IntSet) {
+            return containsAll((IntSet) c);
+        }
+        return super.containsAll(c);
+    }
+
+    @Override
+    public Iterator<Integer> iterator() {
+        return new Iterator<Integer>() {
+            private int index = 0;
+
+            @Override
+            public boolean hasNext() {
+                return index < values.length;
+            }
+
+            @Override
+            public Integer next() {
+                if (index >= values.length) {
+                    throw new NoSuchElementException();
+                }
+                return values[index++];
+            }
+        };
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o instanceof IntSet) {
+            return Arrays.equals(values, ((IntSet) o).values);
+        }
+        return super.equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        int hashCode = 0;
+        for (int value : values) {
+            hashCode += value;
+        }
+        return hashCode;
+    }
+
+}
@@ -0,0 +1,209 @@
+package org.bytedream.untis4j;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Client which manages one {@link Session} per server, school and user.
+ *
+ * <p>All sessions share one {@link RequestLimiter}, so the number of concurrent requests is limited in total and per school,
+ * and free request slots are granted round-robin to the schools. A school which sends many requests can't starve the other ones.
+ * Requests to the same host reuse the pooled keep-alive connections of the jdk</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class MultiSchoolClient {
+
+    private final RequestLimiter requestLimiter;
+    private final Map<String, Session> sessions = new ConcurrentHashMap<>();
+
+    /**
+     * Initialize the {@link MultiSchoolClient} class
+     *
+     * @param maxConcurrentRequests maximum number of requests of all schools which are sent at the same time
+     * @param maxConcurrentRequestsPerSchool maximum number of requests of one school which are sent at the same time
+     *
+     * @since 1.1
+     */
+    public MultiSchoolClient(int maxConcurrentRequests, int maxConcurrentRequestsPerSchool) {
+        this(new RequestLimiter(maxConcurrentRequests, maxConcurrentRequestsPerSchool));
+    }
+
+    /**
+     * Initialize the {@link MultiSchoolClient} class
+     *
+     * @param requestLimiter the {@link RequestLimiter} which is shared by all sessions
+     *
+     * @since 1.1
+     */
+    public MultiSchoolClient(RequestLimiter requestLimiter) {
+        this.requestLimiter = requestLimiter;
+    }
+
+    /**
+     * Returns the session of the user or logs in if there is no session yet
+     *
+     * @param username the username used for the api
+     * @param password the password used for the api
+     * @param server the server used for the api
+     * @param schoolName the school name used for the api
+     * @return the {@link Session} of the user
+     * @throws IOException if an IO Exception occurs
+     *
+     * @see MultiSchoolClient#login(String, String, String, String, String)
+     * @since 1.1
+     */
+    public Session login(String username, String password, String server, String schoolName) throws IOException {
+        return login(username, password, server, schoolName, "");
+    }
+
+    /**
+     * Returns the session of the user or logs in if there is no session yet.
+     *
+     * <p>An existing session is only returned if the password is the same as the one it was logged in with.
+     * Otherwise the user gets logged in again and the new session replaces the existing one if the login succeeds, so a wrong password never gets an authenticated session.
+     * Throws {@link IOException} if an IO Exception occurs or {@link LoginException} (which inherits from IOException) if login fails</p>
+     *
+     * @param username the username used for the api
+     * @param password the password used for the api
+     * @param server the server used for the api
+     * @param schoolName the school name used for the api
+     * @param userAgent the user agent you want to send with the http request
+     * @return the {@link Session} of the user
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public Session login(String username, String password, String server, String schoolName, String userAgent) throws IOException {
+        String key = getKey(server, schoolName, username);
+        Session existing = sessions.get(key);
+        if (existing != null && passwordEquals(existing, password)) {
+            return existing;
+        }
+
+        // the login isn't done inside the map, so a slow login doesn't block the other schools
+        Session session = Session.login(new Infos(username, password, server, schoolName, userAgent), requestLimiter);
+        while (true) {
+            existing = sessions.get(key);
+            if (existing != null && passwordEquals(existing, password)) {
+                // another thread logged in with the same credentials in the meantime
+                session.logout();
+                return existing;
+            } else if (existing == null ? sessions.putIfAbsent(key, session) == null : sessions.replace(key, existing, session)) {
+                break;
+            }
+        }
+        if (existing != null) {
+            // the password changed, the session with the old one isn't needed anymore
+            try {
+                existing.logout();
+            } catch (IOException ignored) {
+            }
+        }
+        return session;
+    }
+
+    /**
+     * Returns the session of the user
+     *
+     * @param server the server of the school
+     * @param schoolName the school name
+     * @param username the username
+     * @return the {@link Session}, {@code null} if there is no session of the user
+     *
+     * @since 1.1
+     */
+    public Session getSession(String server, String schoolName, String username) {
+        return sessions.get(getKey(server, schoolName, username));
+    }
+
+    /**
+     * Returns all sessions of this client
+     *
+     * @return all sessions
+     *
+     * @since 1.1
+     */
+    public List<Session> getSessions() {
+        return new ArrayList<>(sessions.values());
+    }
+
+    /**
+     * Logs out the user and removes the session
+     *
+     * @param server the server of the school
+     * @param schoolName the school name
+     * @param username the username
+     * @return if a session was removed
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public boolean logout(String server, String schoolName, String username) throws IOException {
+        Session session = sessions.remove(getKey(server, schoolName, username));
+        if (session == null) {
+            return false;
+        }
+        session.logout();
+        return true;
+    }
+
+    /**
+     * Logs out all users and removes their sessions.
+     *
+     * <p>Every session is logged out, even if the logout of another one fails. The first exception is thrown afterwards</p>
+     *
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public void logoutAll() throws IOException {
+        IOException exception = null;
+        for (String key : new ArrayList<>(sessions.keySet())) {
+            Session session = sessions.remove(key);
+            if (session == null) {
+                continue;
+            }
+            try {
+                session.logout();
+            } catch (IOException e) {
+                if (exception == null) {
+                    exception = e;
+                } else {
+                    exception.addSuppressed(e);
+                }
+            }
+        }
+        if (exception != null) {
+            throw exception;
+        }
+    }
+
+    /**
+     * Returns the {@link RequestLimiter} which is shared by all sessions
+     *
+     * @return the {@link RequestLimiter}
+     *
+     * @since 1.1
+     */
+    public RequestLimiter getRequestLimiter() {
+        return requestLimiter;
+    }
+
+    private static String getKey(String server, String schoolName, String username) {
+        // length prefixed, so that e.g. a school name containing a slash can't be confused with another user
+        return server.length() + ":" + server + "/" + schoolName.length() + ":" + schoolName + "/" + username;
+    }
+
+    private static boolean passwordEquals(Session session, String password) {
+        // constant time comparison, so the time doesn't reveal how much of the password is correct
+        return MessageDigest.isEqual(session.getInfos().getPassword().getBytes(StandardCharsets.UTF_8), password.getBytes(StandardCharsets.UTF_8));
+    }
+
+}
@@ -0,0 +1,269 @@
+package org.bytedream.untis4j;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Encodes json-rpc request bodies directly into a reusable byte buffer.
+ *
+ * <p>Every {@link UntisUtils.Methods} has a precompiled envelope prefix, so encoding a request only copies that prefix and writes the typed params (dates, element type, id) as ascii digits.
+ * After the buffer has grown to the size of the biggest request, no further allocations are made. An encoder is not thread safe, {@link RequestManager} keeps one per thread</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class RequestEncoder {
+
+    private static final byte[][] METHOD_PREFIXES = new byte[UntisUtils.Methods.values().length][];
+    private static final Map<String, byte[]> METHOD_PREFIXES_BY_NAME = new HashMap<>();
+
+    private static final byte[] START_DATE = ascii("\"startDate\":");
+    private static final byte[] END_DATE = ascii("\"endDate\":");
+    private static final byte[] TYPE = ascii("\"type\":");
+    private static final byte[] ID = ascii("\"id\":");
+    private static final byte[] SUFFIX = ascii("}");
+
+    static {
+        for (UntisUtils.Methods method : UntisUtils.Methods.values()) {
+            METHOD_PREFIXES[method.ordinal()] = prefix(method.getMethod());
+            METHOD_PREFIXES_BY_NAME.put(method.getMethod(), METHOD_PREFIXES[method.ordinal()]);
+        }
+    }
+
+    private byte[] buffer = new byte[256];
+    private int length = 0;
+    private String method = null;
+    private boolean firstParam = true;
+
+    /**
+     * Starts a new request for the given method, the previous content of the buffer gets discarded
+     *
+     * @param method method of the request
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder begin(UntisUtils.Methods method) {
+        return begin(method.getMethod(), METHOD_PREFIXES[method.ordinal()]);
+    }
+
+    /**
+     * Starts a new request for a custom method, the previous content of the buffer gets discarded.
+     * Methods which are listed in {@link UntisUtils.Methods} are using their precompiled prefix
+     *
+     * @param method method of the request
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder begin(String method) {
+        byte[] prefix = METHOD_PREFIXES_BY_NAME.get(method);
+        return begin(method, prefix != null ? prefix : prefix(method));
+    }
+
+    private RequestEncoder begin(String method, byte[] prefix) {
+        this.method = method;
+        length = 0;
+        firstParam = true;
+        write(prefix);
+        return this;
+    }
+
+    /**
+     * Writes an integer param
+     *
+     * @param key precompiled key of the param, including quotes and the colon (e.g. {@code "id":})
+     * @param value value of the param
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder intParam(byte[] key, long value) {
+        separator();
+        write(key);
+        writeNumber(value);
+        return this;
+    }
+
+    /**
+     * Writes a date param in the untis date format ({@code yyyyMMdd})
+     *
+     * @param key precompiled key of the param, including quotes and the colon (e.g. {@code "startDate":})
+     * @param date value of the param
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder dateParam(byte[] key, LocalDate date) {
+        separator();
+        write(key);
+        writeNumber(UntisUtils.toUntisDate(date));
+        return this;
+    }
+
+    /**
+     * Writes the {@code startDate} and {@code endDate} params
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder dateRangeParams(LocalDate start, LocalDate end) {
+        if (end.isBefore(start)) {
+            throw new DateTimeException("The start date must be before or on the same day as the end date");
+        }
+        return dateParam(START_DATE, start).dateParam(END_DATE, end);
+    }
+
+    /**
+     * Writes the {@code type} and {@code id} params
+     *
+     * @param elementType type of the element
+     * @param id id of the element
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder elementParams(UntisUtils.ElementType elementType, int id) {
+        return intParam(TYPE, elementType.getElementType()).intParam(ID, id);
+    }
+
+    /**
+     * Closes the params object and the request envelope
+     *
+     * @return this encoder
+     *
+     * @since 1.1
+     */
+    public RequestEncoder end() {
+        if (firstParam) {
+            ensureCapacity(1);
+            buffer[length++] = '{';
+        }
+        write(SUFFIX);
+        write(SUFFIX);
+        return this;
+    }
+
+    /**
+     * Returns the method of the encoded request
+     *
+     * @return the method of the encoded request, {@code null} if no request was started
+     *
+     * @since 1.1
+     */
+    public String getMethod() {
+        return method;
+    }
+
+    /**
+     * Returns the buffer which holds the encoded request. Only the first {@link RequestEncoder#length()} bytes are valid
+     *
+     * @return the buffer which holds the encoded request
+     *
+     * @since 1.1
+     */
+    public byte[] getBuffer() {
+        return buffer;
+    }
+
+    /**
+     * Returns the length of the encoded request
+     *
+     * @return the length of the encoded request
+     *
+     * @since 1.1
+     */
+    public int length() {
+        return length;
+    }
+
+    /**
+     * Writes the encoded request to the given stream
+     *
+     * @param outputStream stream to write to
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public void writeTo(OutputStream outputStream) throws IOException {
+        outputStream.write(buffer, 0, length);
+    }
+
+    /**
+     * Returns the encoded request as string
+     *
+     * @return the encoded request as string
+     *
+     * @since 1.1
+     */
+    @Override
+    public String toString() {
+        return new String(buffer, 0, length, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Precompiles a param key, so it can be used with {@link RequestEncoder#intParam(byte[], long)} or {@link RequestEncoder#dateParam(byte[], LocalDate)}
+     *
+     * @param key name of the param
+     * @return the precompiled key
+     *
+     * @since 1.1
+     */
+    public static byte[] key(String key) {
+        return ascii("\"" + key + "\":");
+    }
+
+    private void separator() {
+        ensureCapacity(1);
+        buffer[length++] = (byte) (firstParam ? '{' : ',');
+        firstParam = false;
+    }
+
+    private void write(byte[] bytes) {
+        ensureCapacity(bytes.length);
+        System.arraycopy(bytes, 0, buffer, length, bytes.length);
+        length += bytes.length;
+    }
+
+    private void writeNumber(long value) {
+        ensureCapacity(20);
+        if (value < 0) {
+            buffer[length++] = '-';
+            value = -value;
+        }
+        int start = length;
+        do {
+            buffer[length++] = (byte) ('0' + value % 10);
+            value /= 10;
+        } while (value > 0);
+        for (int i = start, j = length - 1; i < j; i++, j--) {
+            byte tmp = buffer[i];
+            buffer[i] = buffer[j];
+            buffer[j] = tmp;
+        }
+    }
+
+    private void ensureCapacity(int additional) {
+        if (length + additional > buffer.length) {
+            buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, length + additional));
+        }
+    }
+
+    private static byte[] prefix(String method) {
+        return ("{\"id\":\"ID\",\"method\":\"" + method + "\",\"jsonrpc\":\"2.0\",\"params\":").getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static byte[] ascii(String string) {
+        return string.getBytes(StandardCharsets.US_ASCII);
+    }
+
+}
@@ -0,0 +1,321 @@
+package org.bytedream.untis4j;
+
+import java.io.InterruptedIOException;
+import java.util.ArrayDeque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Limits the number of concurrent requests, in total and per tenant (a server and school), and schedules waiting requests fairly between the tenants.
+ *
+ * <p>If a request can't be sent immediately, it waits in the queue of its tenant. Free slots are granted round-robin to the tenants with waiting requests,
+ * so a tenant with many requests gets one slot after another tenant got one, and can't starve the other tenants.
+ * Requests of the same tenant are sent in the order they arrived</p>
+ *
+ * <p>Every request has a {@link Priority}. Waiting requests with a higher priority always get a free slot before requests with a lower priority,
+ * so interactive requests overtake queued background requests. The round-robin scheduling between the tenants applies to every priority separately</p>
+ *
+ * @see Session#setRequestLimiter(RequestLimiter)
+ * @see MultiSchoolClient
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class RequestLimiter {
+
+    private final int maxConcurrentRequests;
+    private final int maxConcurrentRequestsPerTenant;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    // all fields below are guarded by lock
+    private final Map<Object, Tenant> tenants = new HashMap<>();
+    private final ArrayDeque<Tenant>[] waitingTenants = newQueues();
+    private int activeRequests = 0;
+
+    /**
+     * Initialize the {@link RequestLimiter} class
+     *
+     * @param maxConcurrentRequests maximum number of requests which are sent at the same time
+     * @param maxConcurrentRequestsPerTenant maximum number of requests of one tenant which are sent at the same time
+     *
+     * @since 1.1
+     */
+    public RequestLimiter(int maxConcurrentRequests, int maxConcurrentRequestsPerTenant) {
+        if (maxConcurrentRequests < 1 || maxConcurrentRequestsPerTenant < 1) {
+            throw new IllegalArgumentException("The limits must be at least 1");
+        }
+        this.maxConcurrentRequests = maxConcurrentRequests;
+        this.maxConcurrentRequestsPerTenant = maxConcurrentRequestsPerTenant;
+    }
+
+    /**
+     * Waits until a request of the tenant may be sent, with {@link Priority#NORMAL}
+     *
+     * @param tenant the tenant
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     *
+     * @see RequestLimiter#acquire(Object, Priority)
+     * @since 1.1
+     */
+    public void acquire(Object tenant) throws InterruptedIOException {
+        acquire(tenant, Priority.NORMAL);
+    }
+
+    /**
+     * Waits until a request of the tenant may be sent. Every successful call must be followed by a call of {@link RequestLimiter#release(Object)}
+     *
+     * @param tenant the tenant
+     * @param priority the priority of the request
+     * @throws InterruptedIOException if the thread was interrupted while waiting
+     *
+     * @since 1.1
+     */
+    public void acquire(Object tenant, Priority priority) throws InterruptedIOException {
+        acquire(tenant, priority, null);
+    }
+
+    /**
+     * Waits until a request of the tenant may be sent, or the token gets cancelled or expires
+     *
+     * @param tenant the tenant
+     * @param priority the priority of the request
+     * @param token token which cancels the waiting, may be {@code null}
+     * @throws InterruptedIOException if the thread was interrupted or the token was cancelled while waiting
+     *
+     * @since 1.1
+     */
+    void acquire(Object tenant, Priority priority, CancellationToken token) throws InterruptedIOException {
+        if (token != null) {
+            token.check();
+        }
+
+        lock.lock();
+        try {
+            Tenant state = tenants.computeIfAbsent(tenant, Tenant::new);
+            ArrayDeque<Waiter> waiters = state.waiters[priority.ordinal()];
+            Waiter waiter = new Waiter(lock.newCondition());
+            if (waiters.isEmpty()) {
+                waitingTenants[priority.ordinal()].addLast(state);
+            }
+            waiters.addLast(waiter);
+            dispatch();
+
+            Runnable wakeUp = null;
+            if (token != null) {
+                wakeUp = () -> {
+                    lock.lock();
+                    try {
+                        waiter.condition.signal();
+                    } finally {
+                        lock.unlock();
+                    }
+                };
+                token.addListener(wakeUp);
+            }
+
+            try {
+                while (!waiter.granted) {
+                    InterruptedIOException failure = null;
+                    try {
+                        if (token != null) {
+                            token.check();
+                        }
+                        long nanos = token != null ? token.remainingNanos() : Long.MAX_VALUE;
+                        if (nanos == Long.MAX_VALUE) {
+                            waiter.condition.await();
+                        } else {
+                            waiter.condition.awaitNanos(nanos);
+                        }
+                        continue;
+                    } catch (InterruptedIOException e) {
+                        failure = e;
+                    } catch (InterruptedException e) {
+                        Thread.currentThread().interrupt();
+                        failure = new InterruptedIOException("Interrupted while waiting for a free request slot");
+                    }
+
+                    if (waiter.granted) {
+                        releaseLocked(state);
+                    } else {
+                        waiters.remove(waiter);
+                        if (waiters.isEmpty()) {
+                            waitingTenants[priority.ordinal()].remove(state);
+                        }
+                        removeIfIdle(state);
+                    }
+                    throw failure;
+                }
+            } finally {
+                if (wakeUp != null) {
+                    token.removeListener(wakeUp);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Releases the slot of a request which was sent
+     *
+     * @param tenant the tenant which sent the request
+     *
+     * @since 1.1
+     */
+    public void release(Object tenant) {
+        lock.lock();
+        try {
+            Tenant state = tenants.get(tenant);
+            if (state == null || state.activeRequests == 0) {
+                throw new IllegalStateException("The tenant has no active request");
+            }
+            releaseLocked(state);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests which are sent at the moment
+     *
+     * @return the number of active requests
+     *
+     * @since 1.1
+     */
+    public int getActiveRequests() {
+        lock.lock();
+        try {
+            return activeRequests;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of requests which wait for a free slot
+     *
+     * @return the number of waiting requests
+     *
+     * @since 1.1
+     */
+    public int getWaitingRequests() {
+        lock.lock();
+        try {
+            int waiting = 0;
+            for (Tenant tenant : tenants.values()) {
+                for (ArrayDeque<Waiter> waiters : tenant.waiters) {
+                    waiting += waiters.size();
+                }
+            }
+            return waiting;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void releaseLocked(Tenant state) {
+        state.activeRequests--;
+        activeRequests--;
+        removeIfIdle(state);
+        dispatch();
+    }
+
+    /**
+     * Grants free slots to the waiters, from the highest to the lowest priority.
+     * Within a priority the slots are granted round-robin to the first waiter of every tenant which hasn't reached its limit
+     */
+    private void dispatch() {
+        for (Priority priority : Priority.values()) {
+            ArrayDeque<Tenant> queue = waitingTenants[priority.ordinal()];
+            int skipped = 0;
+            while (activeRequests < maxConcurrentRequests && skipped < queue.size()) {
+                Tenant tenant = queue.pollFirst();
+                if (tenant.activeRequests >= maxConcurrentRequestsPerTenant) {
+                    queue.addLast(tenant);
+                    skipped++;
+                    continue;
+                }
+
+                ArrayDeque<Waiter> waiters = tenant.waiters[priority.ordinal()];
+                Waiter waiter = waiters.pollFirst();
+                waiter.granted = true;
+                tenant.activeRequests++;
+                activeRequests++;
+                waiter.condition.signal();
+
+                if (!waiters.isEmpty()) {
+                    queue.addLast(tenant);
+                }
+                skipped = 0;
+            }
+            if (activeRequests >= maxConcurrentRequests) {
+                return;
+            }
+        }
+    }
+
+    private void removeIfIdle(Tenant state) {
+        if (state.activeRequests != 0) {
+            return;
+        }
+        for (ArrayDeque<Waiter> waiters : state.waiters) {
+            if (!waiters.isEmpty()) {
+                return;
+            }
+        }
+        tenants.remove(state.key);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <E> ArrayDeque<E>[] newQueues() {
+        ArrayDeque<E>[] queues = new ArrayDeque[Priority.values().length];
+        for (int i = 0; i < queues.length; i++) {
+            queues[i] = new ArrayDeque<>();
+        }
+        return queues;
+    }
+
+    /**
+     * Priorities of requests, from the highest to the lowest
+     *
+     * @since 1.1
+     */
+    public enum Priority {
+        /**
+         * Interactive requests where a user waits for the response
+         */
+        HIGH,
+        /**
+         * Default priority
+         */
+        NORMAL,
+        /**
+         * Background requests like bulk syncs, which may wait for all other requests
+         */
+        LOW
+    }
+
+    private static class Tenant {
+
+        private final Object key;
+        private final ArrayDeque<Waiter>[] waiters = newQueues();
+        private int activeRequests = 0;
+
+        private Tenant(Object key) {
+            this.key = key;
+        }
+    }
+
+    private static class Waiter {
+
+        private final Condition condition;
+        private boolean granted = false;
+
+        private Waiter(Condition condition) {
+            this.condition = condition;
+        }
+    }
+
+}
@@ -5,13 +5,19 @@ import org.json.JSONObject;
 
 import javax.net.ssl.HttpsURLConnection;
 import java.io.BufferedReader;
-import java.io.DataOutputStream;
+import java.io.FilterReader;
 import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.io.Reader;
 import java.net.ConnectException;
 import java.net.URL;
-import java.util.HashMap;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * A class to manage all requests
@@ -23,11 +29,19 @@ public class RequestManager {
 
     private final Infos infos;
 
-    private boolean loggedIn = false;
+    private volatile boolean loggedIn = false;
     private final String baseURL = "/WebUntis/jsonrpc.do";
 
     private final String url;
-    private String sessionId = null;
+    private volatile String sessionId = null;
+
+    private volatile RequestLimiter requestLimiter = null;
+    // the priority is a property of the current call, not of the manager, so it survives a refresh of the session
+    private static final ThreadLocal<RequestLimiter.Priority> priority = ThreadLocal.withInitial(() -> RequestLimiter.Priority.NORMAL);
+    private static final ThreadLocal<CancellationToken> cancellationToken = new ThreadLocal<>();
+    private volatile Duration timeout = null;
+
+    private final ThreadLocal<RequestEncoder> encoders = ThreadLocal.withInitial(RequestEncoder::new);
 
     /**
      * Initialize the {@link RequestManager} class
@@ -50,7 +64,7 @@ public class RequestManager {
      * @since 1.0
      */
     public Response POST(String method) throws IOException {
-        return this.POST(method, new HashMap<>());
+        return this.POST(getEncoder().begin(method).end());
     }
 
     /**
@@ -64,66 +78,345 @@ public class RequestManager {
      * @since 1.0
      */
     public Response POST(String method, Map<String, ?> params) throws IOException {
+        byte[] requestBody = UntisUtils.processParams(method, params).getBytes(StandardCharsets.UTF_8);
 
-        if (loggedIn || method.equals(UntisUtils.Methods.LOGIN.getMethod())) {
-            boolean error;
-            URL url = new URL(this.url);
-            String requestBody = UntisUtils.processParams(method, params);
-            HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
-
-            connection.setRequestMethod("POST");
-            connection.setDoOutput(true);
-            connection.setRequestProperty("User-Agent", infos.getUserAgent());
-            connection.setRequestProperty("Content-Type", "application/json");
+        return this.POST(method, requestBody, requestBody.length);
+    }
 
-            if (sessionId != null && !method.equals(UntisUtils.Methods.LOGIN.getMethod())) {
-                connection.setRequestProperty("Cookie", "JSESSIONID=" + sessionId + "; schoolname=" + infos.getSchoolName());
-            }
+    /**
+     * Sends a POST request to the server
+     *
+     * @param encoder encoder which contains the encoded request, the POST method is the one the request was {@link RequestEncoder#begin(String) started} with
+     * @return {@link Response} with all information about the response
+     * @throws IOException if an IO Exception occurs
+     *
+     * @see RequestManager#getEncoder()
+     *
+     * @since 1.1
+     */
+    public Response POST(RequestEncoder encoder) throws IOException {
+        return this.POST(getMethod(encoder), encoder.getBuffer(), encoder.length());
+    }
 
-            DataOutputStream outputStream = new DataOutputStream(connection.getOutputStream());
-            outputStream.writeBytes(requestBody);
+    /**
+     * Sends a POST request to the server and returns an iterator which parses the elements of the {@code result} array of the response while it's read from the connection
+     *
+     * @param encoder encoder which contains the encoded request, the POST method is the one the request was {@link RequestEncoder#begin(String) started} with
+     * @param parser function which converts an element of the result array
+     * @return {@link ResultIterator} over the converted elements, must be closed if it isn't iterated to the end
+     * @throws IOException if an IO Exception occurs or the response contains an error
+     *
+     * @see ResultIterator
+     *
+     * @since 1.1
+     */
+    public <T> ResultIterator<T> POSTStream(RequestEncoder encoder, Function<? super JSONObject, ? extends T> parser) throws IOException {
+        String method = getMethod(encoder);
+        CancellationToken token = cancellationToken.get();
+        RequestLimiter requestLimiter = acquire(token);
 
-            BufferedReader input;
+        HttpsURLConnection connection = null;
+        Runnable disconnect = null;
+        Reader reader;
+        try {
+            connection = openConnection(method, token);
+            if (token != null) {
+                disconnect = connection::disconnect;
+                token.addListener(disconnect);
+            }
 
-            if (connection.getResponseCode() > 299) {
-                error = true;
-                input = new BufferedReader(new InputStreamReader(connection.getErrorStream()));
-            } else {
-                error = false;
-                input = new BufferedReader(new InputStreamReader(connection.getInputStream()));
+            send(connection, encoder.getBuffer(), encoder.length());
+            reader = openReader(connection, token);
+        } catch (IOException | RuntimeException e) {
+            if (disconnect != null) {
+                token.removeListener(disconnect);
+            }
+            if (connection != null) {
+                connection.disconnect();
             }
+            release(requestLimiter);
+            if (e instanceof IOException) {
+                checkCancelled(token, (IOException) e);
+            }
+            throw e;
+        }
 
-            StringBuilder stringBuilder = new StringBuilder();
-            String line;
-            while ((line = input.readLine()) != null) {
-                stringBuilder.append(line);
+        // the request slot is held until the response is read or the iterator gets closed
+        HttpsURLConnection openConnection = connection;
+        Runnable openDisconnect = disconnect;
+        return new ResultIterator<>(reader, () -> {
+            try {
+                reader.close();
+            } finally {
+                openConnection.disconnect();
+                if (openDisconnect != null) {
+                    token.removeListener(openDisconnect);
+                }
+                release(requestLimiter);
             }
+        }, parser);
+    }
+
+    /**
+     * Returns the method of the encoded request. It's taken from the encoder, so that the login state is always handled for the request which is actually sent
+     */
+    private static String getMethod(RequestEncoder encoder) {
+        if (encoder.getMethod() == null) {
+            throw new IllegalStateException("The encoder contains no request");
+        }
+        return encoder.getMethod();
+    }
+
+    private HttpsURLConnection openConnection(String method, CancellationToken token) throws IOException {
+        if (!loggedIn && !method.equals(UntisUtils.Methods.LOGIN.getMethod())) {
+            throw new ConnectException("Not logged in");
+        }
+        if (token != null) {
+            token.check();
+        }
 
-            JSONObject jsonObject;
+        URL url = new URL(this.url);
+        HttpsURLConnection connection = (HttpsURLConnection) url.openConnection();
 
+        connection.setRequestMethod("POST");
+        connection.setDoOutput(true);
+        connection.setRequestProperty("User-Agent", infos.getUserAgent());
+        connection.setRequestProperty("Content-Type", "application/json");
+
+        if (sessionId != null && !method.equals(UntisUtils.Methods.LOGIN.getMethod())) {
+            connection.setRequestProperty("Cookie", "JSESSIONID=" + sessionId + "; schoolname=" + infos.getSchoolName());
+        }
+
+        // a timeout of 0 means no timeout, so the remaining time of the deadline is rounded up to at least 1 ms
+        long timeoutMillis = timeout != null ? timeout.toMillis() : 0;
+        if (token != null && token.remainingNanos() != Long.MAX_VALUE) {
+            long remainingMillis = Math.max(1, (token.remainingNanos() + 999_999) / 1_000_000);
+            timeoutMillis = timeoutMillis == 0 ? remainingMillis : Math.min(timeoutMillis, remainingMillis);
+        }
+        int timeoutValue = (int) Math.min(Integer.MAX_VALUE, timeoutMillis);
+        connection.setConnectTimeout(timeoutValue);
+        connection.setReadTimeout(timeoutValue);
+
+        return connection;
+    }
+
+    private static void send(HttpsURLConnection connection, byte[] requestBody, int requestBodyLength) throws IOException {
+        connection.setFixedLengthStreamingMode(requestBodyLength);
+
+        try (OutputStream outputStream = connection.getOutputStream()) {
+            outputStream.write(requestBody, 0, requestBodyLength);
+        }
+    }
+
+    /**
+     * Opens the reader of the response. The reader checks the token before every read, so reading and parsing stops if it gets cancelled
+     */
+    private static Reader openReader(HttpsURLConnection connection, CancellationToken token) throws IOException {
+        InputStream inputStream = connection.getResponseCode() > 299 ? connection.getErrorStream() : connection.getInputStream();
+        Reader reader = new InputStreamReader(inputStream, StandardCharsets.UTF_8);
+        return new BufferedReader(token != null ? new CancellableReader(reader, token) : reader);
+    }
+
+    /**
+     * Throws the exception of the token if it was cancelled or expired, because a disconnected connection only throws a generic IOException
+     */
+    private static void checkCancelled(CancellationToken token, IOException cause) throws InterruptedIOException {
+        if (token != null) {
             try {
-                jsonObject = new JSONObject(stringBuilder.toString());
+                token.check();
+            } catch (InterruptedIOException e) {
+                e.initCause(cause);
+                throw e;
+            }
+        }
+    }
+
+    private Response POST(String method, byte[] requestBody, int requestBodyLength) throws IOException {
+        CancellationToken token = cancellationToken.get();
+        RequestLimiter requestLimiter = acquire(token);
+
+        int responseCode;
+        StringBuilder stringBuilder = new StringBuilder();
+        Runnable disconnect = null;
+        try {
+            HttpsURLConnection connection = openConnection(method, token);
+            if (token != null) {
+                disconnect = connection::disconnect;
+                token.addListener(disconnect);
+            }
 
-                if (jsonObject.has("error")) {
-                    JSONObject errorObject = jsonObject.getJSONObject("error");
-                    throw new ConnectException("The response contains an error (" + errorObject.getInt("errorObject") + "): " + errorObject.getString("message"));
+            send(connection, requestBody, requestBodyLength);
+            responseCode = connection.getResponseCode();
+
+            // the stream is read to the end and closed, so that the connection can be reused for the next request to the host
+            try (Reader input = openReader(connection, token)) {
+                char[] buffer = new char[8192];
+                int read;
+                while ((read = input.read(buffer)) != -1) {
+                    stringBuilder.append(buffer, 0, read);
                 }
-            } catch (JSONException e) {
-                throw new ConnectException("An unexpected exception occurred: " + stringBuilder.toString());
             }
+        } catch (IOException e) {
+            checkCancelled(token, e);
+            throw e;
+        } finally {
+            if (disconnect != null) {
+                token.removeListener(disconnect);
+            }
+            release(requestLimiter);
+        }
+        if (token != null) {
+            token.check();
+        }
+        boolean error = responseCode > 299;
 
-            if (method.equals(UntisUtils.Methods.LOGIN.getMethod()) && !loggedIn && !error) {
-                sessionId = jsonObject.getJSONObject("result").getString("sessionId");
-                loggedIn = true;
-            } else if (method.equals(UntisUtils.Methods.LOGOUT.getMethod()) && loggedIn && !error) {
-                loggedIn = false;
+        JSONObject jsonObject;
+
+        try {
+            jsonObject = new JSONObject(stringBuilder.toString());
+
+            if (jsonObject.has("error")) {
+                JSONObject errorObject = jsonObject.getJSONObject("error");
+                throw new ConnectException("The response contains an error (" + errorObject.getInt("code") + "): " + errorObject.getString("message"));
             }
+        } catch (JSONException e) {
+            throw new ConnectException("An unexpected exception occurred: " + stringBuilder.toString());
+        }
+
+        if (method.equals(UntisUtils.Methods.LOGIN.getMethod()) && !loggedIn && !error) {
+            sessionId = jsonObject.getJSONObject("result").getString("sessionId");
+            loggedIn = true;
+        } else if (method.equals(UntisUtils.Methods.LOGOUT.getMethod()) && loggedIn && !error) {
+            loggedIn = false;
+        }
+
+        return new Response(responseCode, jsonObject);
+    }
 
-            return new Response(connection.getResponseCode(), jsonObject);
+    /**
+     * Returns the {@link RequestLimiter} which limits the requests of this manager
+     *
+     * @return the {@link RequestLimiter}, {@code null} if the requests aren't limited
+     *
+     * @since 1.1
+     */
+    public RequestLimiter getRequestLimiter() {
+        return requestLimiter;
+    }
+
+    /**
+     * Sets the {@link RequestLimiter} which limits the requests of this manager. The url (server and school) is used as tenant.
+     * A streamed request ({@link RequestManager#POSTStream(RequestEncoder, Function)}) holds its slot until the returned iterator is exhausted or closed
+     *
+     * @param requestLimiter the {@link RequestLimiter}, {@code null} to not limit the requests
+     *
+     * @since 1.1
+     */
+    public void setRequestLimiter(RequestLimiter requestLimiter) {
+        this.requestLimiter = requestLimiter;
+    }
+
+    /**
+     * Returns the priority of the requests which are sent by the current thread
+     *
+     * @return the priority
+     *
+     * @since 1.1
+     */
+    static RequestLimiter.Priority getPriority() {
+        return priority.get();
+    }
+
+    /**
+     * Sets the priority of the requests which are sent by the current thread
+     *
+     * @param priority the priority
+     * @return the previous priority
+     *
+     * @since 1.1
+     */
+    static RequestLimiter.Priority setPriority(RequestLimiter.Priority priority) {
+        RequestLimiter.Priority previous = RequestManager.priority.get();
+        RequestManager.priority.set(priority);
+        return previous;
+    }
+
+    /**
+     * Returns the {@link CancellationToken} of the requests which are sent by the current thread
+     *
+     * @return the token, {@code null} if the requests can't be cancelled
+     *
+     * @since 1.1
+     */
+    static CancellationToken getCancellationToken() {
+        return cancellationToken.get();
+    }
+
+    /**
+     * Sets the {@link CancellationToken} of the requests which are sent by the current thread
+     *
+     * @param token the token, {@code null} if the requests can't be cancelled
+     * @return the previous token
+     *
+     * @since 1.1
+     */
+    static CancellationToken setCancellationToken(CancellationToken token) {
+        CancellationToken previous = cancellationToken.get();
+        if (token == null) {
+            cancellationToken.remove();
         } else {
-            throw new ConnectException("Not logged in");
+            cancellationToken.set(token);
         }
+        return previous;
+    }
 
+    /**
+     * Returns the connect and read timeout of the requests
+     *
+     * @return the timeout, {@code null} if the requests don't time out
+     *
+     * @since 1.1
+     */
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Sets the connect and read timeout of the requests. A deadline of a {@link CancellationToken} shortens the timeout if it's closer
+     *
+     * @param timeout the timeout, {@code null} if the requests shouldn't time out
+     *
+     * @since 1.1
+     */
+    public void setTimeout(Duration timeout) {
+        this.timeout = timeout;
+    }
+
+    private RequestLimiter acquire(CancellationToken token) throws IOException {
+        RequestLimiter requestLimiter = this.requestLimiter;
+        if (requestLimiter != null) {
+            requestLimiter.acquire(url, priority.get(), token);
+        }
+        return requestLimiter;
+    }
+
+    private void release(RequestLimiter requestLimiter) {
+        if (requestLimiter != null) {
+            requestLimiter.release(url);
+        }
+    }
+
+    /**
+     * Returns the {@link RequestEncoder} of the current thread.
+     *
+     * <p>The encoder is reused for every request which is sent from the current thread, so the request must be sent before the encoder is used again</p>
+     *
+     * @return the {@link RequestEncoder} of the current thread
+     *
+     * @since 1.1
+     */
+    public RequestEncoder getEncoder() {
+        return encoders.get();
     }
 
     /**
@@ -137,4 +430,29 @@ public class RequestManager {
         return url;
     }
 
+    /**
+     * Reader which checks a {@link CancellationToken} before every read
+     */
+    private static class CancellableReader extends FilterReader {
+
+        private final CancellationToken token;
+
+        private CancellableReader(Reader reader, CancellationToken token) {
+            super(reader);
+            this.token = token;
+        }
+
+        @Override
+        public int read() throws IOException {
+            token.check();
+            return super.read();
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) throws IOException {
+            token.check();
+            return super.read(buffer, offset, length);
+        }
+    }
+
 }
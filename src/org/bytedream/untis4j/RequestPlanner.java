@@ -0,0 +1,102 @@
+package org.bytedream.untis4j;
+
+import org.bytedream.untis4j.responseObjects.Holidays;
+import org.bytedream.untis4j.responseObjects.SchoolYears;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Plans date range requests with the holidays and school years of a school.
+ *
+ * <p>Days outside of every school year and days inside of holidays have no lessons or class reg events, so they don't have to be requested.
+ * The planner removes these days from a requested time period, so that periods which only contain such days aren't sent to the server at all
+ * and the others are trimmed to the days which can have results.
+ * If no school years are known, all days are treated as part of a school year</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class RequestPlanner {
+
+    private final List<DateRange> schoolYears;
+    private final List<DateRange> holidays;
+
+    /**
+     * Initialize the {@link RequestPlanner} class
+     *
+     * @param holidays holidays of the school
+     * @param schoolYears school years of the school
+     *
+     * @since 1.1
+     */
+    public RequestPlanner(Holidays holidays, SchoolYears schoolYears) {
+        this.holidays = Collections.unmodifiableList(holidays.getDateRanges());
+        this.schoolYears = Collections.unmodifiableList(schoolYears.getDateRanges());
+    }
+
+    /**
+     * Returns the parts of a time period which can contain results
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @return the parts of the time period which are in a school year and not in holidays, ordered by date. Empty if nothing has to be requested
+     *
+     * @since 1.1
+     */
+    public List<DateRange> plan(LocalDate start, LocalDate end) {
+        DateRange range = new DateRange(start, end);
+
+        List<DateRange> schoolDays = schoolYears.isEmpty() ? Collections.singletonList(range) : range.intersect(schoolYears);
+
+        List<DateRange> plan = new ArrayList<>();
+        for (DateRange part : schoolDays) {
+            plan.addAll(part.subtract(holidays));
+        }
+
+        return plan;
+    }
+
+    /**
+     * Returns the smallest time period which has to be requested to get all results of the given time period
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @return the trimmed time period, {@code null} if the time period can't contain any results
+     *
+     * @since 1.1
+     */
+    public DateRange trim(LocalDate start, LocalDate end) {
+        List<DateRange> plan = plan(start, end);
+
+        if (plan.isEmpty()) {
+            return null;
+        }
+        return new DateRange(plan.get(0).getStart(), plan.get(plan.size() - 1).getEnd());
+    }
+
+    /**
+     * Returns the holidays the planner uses
+     *
+     * @return the periods of the holidays
+     *
+     * @since 1.1
+     */
+    public List<DateRange> getHolidays() {
+        return holidays;
+    }
+
+    /**
+     * Returns the school years the planner uses
+     *
+     * @return the periods of the school years
+     *
+     * @since 1.1
+     */
+    public List<DateRange> getSchoolYears() {
+        return schoolYears;
+    }
+
+}
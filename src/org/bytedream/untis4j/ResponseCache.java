@@ -0,0 +1,693 @@
+package org.bytedream.untis4j;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.net.SocketTimeoutException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+
+/**
+ * Concurrent in-memory cache for responses, bounded by the total weight of its values and with an optional time to live.
+ *
+ * <p>Lookups read a {@link ConcurrentHashMap} and don't block each other. The recency order is kept in an access ordered map behind a lock,
+ * reads only update it if the lock is free, so under contention the eviction order is an approximation of least recently used.
+ * If the total weight exceeds the maximum, the least recently used values are evicted. Concurrent loads of the same key are merged into one.
+ * A caller which waits for the load of another thread is still bounded by its own {@link CancellationToken} (see {@link Session#withCancellation(CancellationToken, Session.Request)}),
+ * and if the loading caller gets cancelled, the waiters load the value again instead of failing with its cancellation.
+ * Hits, misses, loads and evictions are counted, see {@link ResponseCache#getStats()}</p>
+ *
+ * <p>With {@link ResponseCache#setRefreshAhead(Duration, Duration, Executor)} values which are accessed shortly before they expire are reloaded in the background,
+ * and expired values can be returned while they are reloaded (stale-while-revalidate), so frequently used values never have to be waited for</p>
+ *
+ * @see Session#setResponseCache(ResponseCache)
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class ResponseCache<K, V> {
+
+    private final long maxWeight;
+    private final long expireAfterWriteNanos;
+    private final ToIntFunction<? super V> weigher;
+
+    private final ConcurrentHashMap<K, Node<V>> nodes = new ConcurrentHashMap<>();
+    // keyed by the key, or by the key and group for loads which are only merged within their group
+    private final ConcurrentHashMap<Object, CompletableFuture<V>> loading = new ConcurrentHashMap<>();
+    private final ReentrantLock lock = new ReentrantLock();
+    // guarded by lock
+    private final LinkedHashMap<K, Node<V>> order = new LinkedHashMap<>(16, 0.75f, true);
+    private final AtomicLong weight = new AtomicLong();
+
+    private volatile long refreshAfterWriteNanos = Long.MAX_VALUE;
+    private volatile long staleNanos = 0;
+    private volatile Executor refreshExecutor = null;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder loadSuccesses = new LongAdder();
+    private final LongAdder loadFailures = new LongAdder();
+    private final LongAdder totalLoadTime = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder refreshes = new LongAdder();
+
+    /**
+     * Initialize the {@link ResponseCache} class with values which never expire
+     *
+     * @see ResponseCache#ResponseCache(long, Duration, ToIntFunction)
+     *
+     * @since 1.1
+     */
+    public ResponseCache(long maxWeight) {
+        this(maxWeight, null);
+    }
+
+    /**
+     * Initialize the {@link ResponseCache} class with the default weight, see {@link ResponseCache#defaultWeight(Object)}
+     *
+     * @see ResponseCache#ResponseCache(long, Duration, ToIntFunction)
+     *
+     * @since 1.1
+     */
+    public ResponseCache(long maxWeight, Duration expireAfterWrite) {
+        this(maxWeight, expireAfterWrite, ResponseCache::defaultWeight);
+    }
+
+    /**
+     * Initialize the {@link ResponseCache} class
+     *
+     * @param maxWeight maximum total weight of all values
+     * @param expireAfterWrite time after which a value expires, {@code null} if values never expire
+     * @param weigher function which returns the weight of a value, must not be negative
+     *
+     * @since 1.1
+     */
+    public ResponseCache(long maxWeight, Duration expireAfterWrite, ToIntFunction<? super V> weigher) {
+        if (maxWeight < 0) {
+            throw new IllegalArgumentException("The maximum weight must not be negative, but was " + maxWeight);
+        } else if (expireAfterWrite != null && (expireAfterWrite.isNegative() || expireAfterWrite.isZero())) {
+            throw new IllegalArgumentException("The time to live must be positive, but was " + expireAfterWrite);
+        }
+        this.maxWeight = maxWeight;
+        this.expireAfterWriteNanos = expireAfterWrite == null ? Long.MAX_VALUE : expireAfterWrite.toNanos();
+        this.weigher = weigher;
+    }
+
+    /**
+     * Returns the default weight of a value: the number of elements of a collection (e.g. lessons of a timetable), the number of lessons of a {@link TimetableArchive} and 1 for all other values
+     *
+     * @param value the value
+     * @return the weight of the value
+     *
+     * @since 1.1
+     */
+    public static int defaultWeight(Object value) {
+        if (value instanceof Collection) {
+            return Math.max(1, ((Collection<?>) value).size());
+        } else if (value instanceof TimetableArchive) {
+            return Math.max(1, ((TimetableArchive) value).size());
+        }
+        return 1;
+    }
+
+    /**
+     * Enables refresh-ahead and stale-while-revalidate.
+     *
+     * <p>If a value which is older than {@code refreshAfterWrite} is requested with {@link ResponseCache#get(Object, Loader)}, it's returned immediately
+     * and reloaded on {@code executor}. Values which expired less than {@code staleWhileRevalidate} ago are handled the same way instead of being loaded synchronously.
+     * So only values which weren't requested for a long time have to be waited for. Only one reload per key runs at a time</p>
+     *
+     * @param refreshAfterWrite age after which a requested value is reloaded in the background, {@code null} to disable refresh-ahead
+     * @param staleWhileRevalidate time after the expiration in which a value is still returned while it's reloaded, {@code null} to never return expired values
+     * @param executor executor on which the values are reloaded
+     *
+     * @since 1.1
+     */
+    public void setRefreshAhead(Duration refreshAfterWrite, Duration staleWhileRevalidate, Executor executor) {
+        this.refreshExecutor = executor;
+        this.refreshAfterWriteNanos = refreshAfterWrite == null ? Long.MAX_VALUE : refreshAfterWrite.toNanos();
+        this.staleNanos = staleWhileRevalidate == null ? 0 : staleWhileRevalidate.toNanos();
+    }
+
+    /**
+     * Returns the cached value of a key
+     *
+     * @param key the key
+     * @return the value, {@code null} if it isn't cached or expired
+     *
+     * @since 1.1
+     */
+    public V getIfPresent(K key) {
+        Node<V> node = nodes.get(key);
+
+        if (node == null || isExpired(node, System.nanoTime())) {
+            misses.increment();
+            return null;
+        }
+        hits.increment();
+        recordAccess(key);
+        return node.value;
+    }
+
+    /**
+     * Returns the cached value of a key, or loads and caches it if it isn't cached or expired.
+     * If another thread is already loading the key, the value it loads is returned
+     *
+     * @param key the key
+     * @param loader loads the value, must not return {@code null}
+     * @return the value
+     * @throws IOException if the loader throws an exception
+     *
+     * @since 1.1
+     */
+    public V get(K key, Loader<? extends V> loader) throws IOException {
+        return get(key, null, loader);
+    }
+
+    /**
+     * Returns the cached value of a key, or loads and caches it if it isn't cached or expired.
+     * If another thread is already loading the key in the same group, the value it loads is returned.
+     * Loads of different groups aren't merged, e.g. so that a caller doesn't wait for a load which was sent with a lower priority
+     *
+     * @param key the key
+     * @param group the group of the load, {@code null} for the group of {@link ResponseCache#get(Object, Loader)}
+     * @param loader loads the value, must not return {@code null}
+     * @return the value
+     * @throws IOException if the loader throws an exception
+     *
+     * @since 1.1
+     */
+    public V get(K key, Object group, Loader<? extends V> loader) throws IOException {
+        Object loadingKey = group == null ? key : Arrays.asList(key, group);
+        Node<V> node = nodes.get(key);
+        if (node != null) {
+            long age = System.nanoTime() - node.writeTime;
+            if (age < expireAfterWriteNanos || (refreshExecutor != null && age - expireAfterWriteNanos < staleNanos)) {
+                hits.increment();
+                recordAccess(key);
+                if (age >= refreshAfterWriteNanos || age >= expireAfterWriteNanos) {
+                    refresh(key, loader);
+                }
+                return node.value;
+            }
+        }
+        misses.increment();
+
+        while (true) {
+            CompletableFuture<V> future = new CompletableFuture<>();
+            CompletableFuture<V> running = loading.putIfAbsent(loadingKey, future);
+            if (running != null) {
+                V value = await(running);
+                if (value != null) {
+                    return value;
+                }
+                // the loading caller was cancelled, so this caller tries to load the value itself
+                continue;
+            }
+
+            try {
+                // another thread may have finished loading between the lookup and putIfAbsent
+                node = nodes.get(key);
+                V value;
+                if (node != null && !isExpired(node, System.nanoTime())) {
+                    value = node.value;
+                } else {
+                    value = load(key, loader);
+                }
+                // the future is removed before it's completed, so waiters which retry don't find it again
+                loading.remove(loadingKey, future);
+                future.complete(value);
+                return value;
+            } catch (IOException | RuntimeException | Error e) {
+                loading.remove(loadingKey, future);
+                CancellationToken token = RequestManager.getCancellationToken();
+                // the cancellation (or deadline) of this caller isn't passed on to the other waiters
+                future.completeExceptionally(token != null && (token.isCancelled() || token.isExpired()) ? new LoadCancelledException() : e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Caches a value, replacing the cached value of the key
+     *
+     * @param key the key
+     * @param value the value
+     *
+     * @since 1.1
+     */
+    public void put(K key, V value) {
+        Node<V> node = new Node<>(value, weigher.applyAsInt(value), System.nanoTime());
+
+        lock.lock();
+        try {
+            Node<V> previous = nodes.put(key, node);
+            order.put(key, node);
+            weight.addAndGet(node.weight - (previous == null ? 0 : previous.weight));
+            evict();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the cached value of a key
+     *
+     * @param key the key
+     *
+     * @since 1.1
+     */
+    public void invalidate(K key) {
+        lock.lock();
+        try {
+            Node<V> node = nodes.remove(key);
+            if (node != null) {
+                order.remove(key);
+                weight.addAndGet(-node.weight);
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all cached values
+     *
+     * @since 1.1
+     */
+    public void invalidateAll() {
+        lock.lock();
+        try {
+            nodes.clear();
+            order.clear();
+            weight.set(0);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes the cached values of all keys which match the filter
+     *
+     * @param filter filter for the keys to remove
+     *
+     * @since 1.1
+     */
+    public void invalidateAll(Predicate<? super K> filter) {
+        lock.lock();
+        try {
+            Iterator<Map.Entry<K, Node<V>>> iterator = order.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Node<V>> entry = iterator.next();
+                if (filter.test(entry.getKey())) {
+                    iterator.remove();
+                    nodes.remove(entry.getKey(), entry.getValue());
+                    weight.addAndGet(-entry.getValue().weight);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Removes all expired values (which can't be returned as stale value anymore). Expired values are otherwise only removed when they get replaced or evicted
+     *
+     * @since 1.1
+     */
+    public void cleanUp() {
+        long now = System.nanoTime();
+
+        lock.lock();
+        try {
+            Iterator<Map.Entry<K, Node<V>>> iterator = order.entrySet().iterator();
+            while (iterator.hasNext()) {
+                Map.Entry<K, Node<V>> entry = iterator.next();
+                if (isExpired(entry.getValue(), now) && now - entry.getValue().writeTime - expireAfterWriteNanos >= staleNanos) {
+                    iterator.remove();
+                    nodes.remove(entry.getKey(), entry.getValue());
+                    weight.addAndGet(-entry.getValue().weight);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Returns the number of cached values, including expired ones which weren't removed yet
+     *
+     * @return the number of cached values
+     *
+     * @since 1.1
+     */
+    public int size() {
+        return nodes.size();
+    }
+
+    /**
+     * Returns the total weight of all cached values
+     *
+     * @return the total weight
+     *
+     * @since 1.1
+     */
+    public long getWeight() {
+        return weight.get();
+    }
+
+    /**
+     * Returns the maximum total weight of all cached values
+     *
+     * @return the maximum total weight
+     *
+     * @since 1.1
+     */
+    public long getMaxWeight() {
+        return maxWeight;
+    }
+
+    /**
+     * Returns a snapshot of the statistics of the cache
+     *
+     * @return the statistics
+     *
+     * @since 1.1
+     */
+    public Stats getStats() {
+        return new Stats(hits.sum(), misses.sum(), loadSuccesses.sum(), loadFailures.sum(), totalLoadTime.sum(), evictions.sum(), refreshes.sum());
+    }
+
+    private V load(K key, Loader<? extends V> loader) throws IOException {
+        long start = System.nanoTime();
+        V value;
+        try {
+            value = loader.load();
+        } catch (IOException | RuntimeException | Error e) {
+            loadFailures.increment();
+            totalLoadTime.add(System.nanoTime() - start);
+            throw e;
+        }
+        loadSuccesses.increment();
+        totalLoadTime.add(System.nanoTime() - start);
+
+        put(key, value);
+        return value;
+    }
+
+    private void refresh(K key, Loader<? extends V> loader) {
+        Executor executor = refreshExecutor;
+        CompletableFuture<V> future = new CompletableFuture<>();
+        if (executor == null || loading.putIfAbsent(key, future) != null) {
+            return;
+        }
+
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(load(key, loader));
+                } catch (Throwable t) {
+                    // the old value stays cached and is served until it expires, the next request retries
+                    future.completeExceptionally(t);
+                } finally {
+                    loading.remove(key, future);
+                }
+            });
+            refreshes.increment();
+        } catch (RejectedExecutionException e) {
+            loading.remove(key, future);
+            future.completeExceptionally(e);
+        }
+    }
+
+    /**
+     * Waits for the load of another thread, bounded by the {@link CancellationToken} of the current thread
+     *
+     * @return the value, {@code null} if the loading thread was cancelled and the value must be loaded again
+     */
+    private V await(CompletableFuture<V> future) throws IOException {
+        CancellationToken token = RequestManager.getCancellationToken();
+        Runnable wakeUp = null;
+        CompletableFuture<V> waiting = future;
+        if (token != null) {
+            token.check();
+            // only the future of this waiter gets completed on cancellation, the load itself goes on for the other waiters
+            CompletableFuture<V> cancellable = new CompletableFuture<>();
+            future.whenComplete((value, t) -> {
+                if (t != null) {
+                    cancellable.completeExceptionally(t);
+                } else {
+                    cancellable.complete(value);
+                }
+            });
+            wakeUp = () -> {
+                // the token was cancelled or its deadline passed, check throws the matching exception
+                try {
+                    token.check();
+                } catch (InterruptedIOException e) {
+                    cancellable.completeExceptionally(e);
+                }
+            };
+            token.addListener(wakeUp);
+            waiting = cancellable;
+        }
+
+        try {
+            long nanos = token != null ? token.remainingNanos() : Long.MAX_VALUE;
+            return nanos == Long.MAX_VALUE ? waiting.get() : waiting.get(nanos, TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            token.check();
+            throw new SocketTimeoutException("The deadline of the request passed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for another thread to load the value");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof LoadCancelledException) {
+                return null;
+            } else if (cause instanceof IOException) {
+                throw (IOException) cause;
+            } else if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            } else if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw new IOException(cause);
+        } finally {
+            if (wakeUp != null) {
+                token.removeListener(wakeUp);
+            }
+        }
+    }
+
+    private void recordAccess(K key) {
+        // the recency order is only a hint for the eviction, so reads never wait for the lock
+        if (lock.tryLock()) {
+            try {
+                order.get(key);
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Evicts the least recently used values until the total weight isn't greater than the maximum. Must be called while holding the lock
+     */
+    private void evict() {
+        Iterator<Map.Entry<K, Node<V>>> iterator = order.entrySet().iterator();
+        while (weight.get() > maxWeight && iterator.hasNext()) {
+            Map.Entry<K, Node<V>> entry = iterator.next();
+            iterator.remove();
+            nodes.remove(entry.getKey(), entry.getValue());
+            weight.addAndGet(-entry.getValue().weight);
+            evictions.increment();
+        }
+    }
+
+    private boolean isExpired(Node<V> node, long now) {
+        return now - node.writeTime >= expireAfterWriteNanos;
+    }
+
+    /**
+     * Completes a load whose caller was cancelled, so that the waiters load the value again instead of failing
+     */
+    private static class LoadCancelledException extends Exception {
+
+        private LoadCancelledException() {
+            super(null, null, false, false);
+        }
+    }
+
+    /**
+     * Loads a value which isn't cached
+     *
+     * @since 1.1
+     */
+    @FunctionalInterface
+    public interface Loader<V> {
+
+        /**
+         * Loads the value
+         *
+         * @return the value
+         * @throws IOException if an IO Exception occurs
+         *
+         * @since 1.1
+         */
+        V load() throws IOException;
+    }
+
+    /**
+     * Class to get information about the statistics of a {@link ResponseCache}
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public static class Stats {
+
+        private final long hitCount;
+        private final long missCount;
+        private final long loadSuccessCount;
+        private final long loadFailureCount;
+        private final long totalLoadTime;
+        private final long evictionCount;
+        private final long refreshCount;
+
+        private Stats(long hitCount, long missCount, long loadSuccessCount, long loadFailureCount, long totalLoadTime, long evictionCount, long refreshCount) {
+            this.hitCount = hitCount;
+            this.missCount = missCount;
+            this.loadSuccessCount = loadSuccessCount;
+            this.loadFailureCount = loadFailureCount;
+            this.totalLoadTime = totalLoadTime;
+            this.evictionCount = evictionCount;
+            this.refreshCount = refreshCount;
+        }
+
+        /**
+         * Returns the number of lookups which returned a cached value
+         *
+         * @return the number of hits
+         *
+         * @since 1.1
+         */
+        public long getHitCount() {
+            return hitCount;
+        }
+
+        /**
+         * Returns the number of lookups which didn't find a cached value
+         *
+         * @return the number of misses
+         *
+         * @since 1.1
+         */
+        public long getMissCount() {
+            return missCount;
+        }
+
+        /**
+         * Returns the ratio of hits to all lookups
+         *
+         * @return the hit rate, 1 if there were no lookups
+         *
+         * @since 1.1
+         */
+        public double getHitRate() {
+            long requests = hitCount + missCount;
+            return requests == 0 ? 1 : (double) hitCount / requests;
+        }
+
+        /**
+         * Returns the number of successfully loaded values
+         *
+         * @return the number of successful loads
+         *
+         * @since 1.1
+         */
+        public long getLoadSuccessCount() {
+            return loadSuccessCount;
+        }
+
+        /**
+         * Returns the number of loads which threw an exception
+         *
+         * @return the number of failed loads
+         *
+         * @since 1.1
+         */
+        public long getLoadFailureCount() {
+            return loadFailureCount;
+        }
+
+        /**
+         * Returns the time spent loading values
+         *
+         * @return the total load time
+         *
+         * @since 1.1
+         */
+        public Duration getTotalLoadTime() {
+            return Duration.ofNanos(totalLoadTime);
+        }
+
+        /**
+         * Returns the number of values which were evicted because the maximum weight was exceeded
+         *
+         * @return the number of evictions
+         *
+         * @since 1.1
+         */
+        public long getEvictionCount() {
+            return evictionCount;
+        }
+
+        /**
+         * Returns the number of values which were reloaded in the background
+         *
+         * @return the number of background reloads
+         *
+         * @see ResponseCache#setRefreshAhead(Duration, Duration, Executor)
+         *
+         * @since 1.1
+         */
+        public long getRefreshCount() {
+            return refreshCount;
+        }
+
+        @Override
+        public String toString() {
+            return "Stats{hits=" + hitCount + ", misses=" + missCount + ", loadSuccesses=" + loadSuccessCount + ", loadFailures=" + loadFailureCount
+                    + ", totalLoadTime=" + getTotalLoadTime() + ", evictions=" + evictionCount + ", refreshes=" + refreshCount + "}";
+        }
+    }
+
+    private static class Node<V> {
+
+        private final V value;
+        private final int weight;
+        private final long writeTime;
+
+        private Node(V value, int weight, long writeTime) {
+            this.value = value;
+            this.weight = weight;
+            this.writeTime = writeTime;
+        }
+    }
+
+}
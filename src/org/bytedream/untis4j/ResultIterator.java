@@ -0,0 +1,224 @@
+package org.bytedream.untis4j;
+
+import org.json.JSONException;
+import org.json.JSONObject;
+import org.json.JSONTokener;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.net.ConnectException;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Iterator over the {@code result} array of a response, which reads and parses the elements incrementally from the response stream.
+ *
+ * <p>Only the element which gets returned next is held in memory, so consumers can start to process the first elements while the rest is still being transferred, and can stop early without reading the whole response.
+ * The iterator closes the underlying stream when the end of the array is reached, otherwise it must be closed with {@link ResultIterator#close()} (or by closing the stream returned by {@link ResultIterator#stream()}).
+ * Errors which occur while iterating are thrown as {@link UncheckedIOException} (if reading failed) or {@link JSONException} (if the response is malformed)</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class ResultIterator<T> implements Iterator<T>, Closeable {
+
+    private final JSONTokener tokener;
+    private final Closeable source;
+    private final Function<? super JSONObject, ? extends T> parser;
+
+    private T next = null;
+    private boolean end = false;
+    private boolean closed = false;
+
+    /**
+     * Initialize the {@link ResultIterator} class and reads the response until the first element of the {@code result} array
+     *
+     * @param reader reader of the response
+     * @param parser function which converts an element of the result array, must not return {@code null}
+     * @throws IOException if the response contains an error, has no result array or can't be read
+     *
+     * @since 1.1
+     */
+    public ResultIterator(Reader reader, Function<? super JSONObject, ? extends T> parser) throws IOException {
+        this(reader, reader, parser);
+    }
+
+    /**
+     * Initialize the {@link ResultIterator} class and reads the response until the first element of the {@code result} array
+     *
+     * @param reader reader of the response
+     * @param source gets closed when the iterator is closed
+     * @param parser function which converts an element of the result array, must not return {@code null}
+     * @throws IOException if the response contains an error, has no result array or can't be read
+     */
+    ResultIterator(Reader reader, Closeable source, Function<? super JSONObject, ? extends T> parser) throws IOException {
+        this.tokener = new JSONTokener(reader);
+        this.source = source;
+        this.parser = parser;
+
+        try {
+            readToResult();
+        } catch (JSONException e) {
+            close();
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new ConnectException("An unexpected exception occurred: " + e.getMessage());
+        } catch (IOException e) {
+            close();
+            throw e;
+        }
+    }
+
+    /**
+     * Checks if the result array has more elements. Reads and parses the next element if it wasn't read yet
+     *
+     * @return {@code true} if the result array has more elements
+     *
+     * @since 1.1
+     */
+    @Override
+    public boolean hasNext() {
+        if (next != null) {
+            return true;
+        } else if (end) {
+            return false;
+        } else if (closed) {
+            throw new IllegalStateException("The iterator is closed");
+        }
+
+        try {
+            Object value = tokener.nextValue();
+            if (!(value instanceof JSONObject)) {
+                throw tokener.syntaxError("Expected a JSONObject in the result array");
+            }
+            next = parser.apply((JSONObject) value);
+
+            char c = tokener.nextClean();
+            if (c == ']') {
+                end = true;
+                close();
+            } else if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or ']'");
+            }
+        } catch (JSONException e) {
+            closeQuietly();
+            if (e.getCause() instanceof IOException) {
+                throw new UncheckedIOException((IOException) e.getCause());
+            }
+            throw e;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+
+        return true;
+    }
+
+    /**
+     * Returns the next element of the result array
+     *
+     * @return the next element
+     *
+     * @since 1.1
+     */
+    @Override
+    public T next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+
+        T element = next;
+        next = null;
+        return element;
+    }
+
+    /**
+     * Returns a sequential {@link Stream} over the remaining elements. Closing the stream closes this iterator.
+     *
+     * <p>The number of elements isn't known before the whole response is read, so the stream isn't {@link Spliterator#SIZED}</p>
+     *
+     * @return the stream
+     *
+     * @since 1.1
+     */
+    public Stream<T> stream() {
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(this, Spliterator.ORDERED | Spliterator.NONNULL), false)
+                .onClose(this::closeQuietly);
+    }
+
+    /**
+     * Closes the underlying response stream. Elements which were already read can still be returned
+     *
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    @Override
+    public void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            source.close();
+        }
+    }
+
+    private void closeQuietly() {
+        try {
+            close();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void readToResult() throws IOException {
+        if (tokener.nextClean() != '{') {
+            throw tokener.syntaxError("A JSONObject text must begin with '{'");
+        }
+
+        while (true) {
+            char c = tokener.nextClean();
+            if (c == '}') {
+                throw new ConnectException("The response contains no result");
+            }
+            tokener.back();
+
+            String key = tokener.nextValue().toString();
+            if (tokener.nextClean() != ':') {
+                throw tokener.syntaxError("Expected a ':' after a key");
+            }
+
+            if (key.equals("result")) {
+                if (tokener.nextClean() != '[') {
+                    throw tokener.syntaxError("The result is no JSONArray");
+                }
+                if (tokener.nextClean() == ']') {
+                    end = true;
+                    close();
+                } else {
+                    tokener.back();
+                }
+                return;
+            }
+
+            Object value = tokener.nextValue();
+            if (key.equals("error") && value instanceof JSONObject) {
+                JSONObject errorObject = (JSONObject) value;
+                throw new ConnectException("The response contains an error (" + errorObject.optInt("code") + "): " + errorObject.optString("message"));
+            }
+
+            c = tokener.nextClean();
+            if (c == '}') {
+                throw new ConnectException("The response contains no result");
+            } else if (c != ',') {
+                throw tokener.syntaxError("Expected a ',' or '}'");
+            }
+        }
+    }
+
+}
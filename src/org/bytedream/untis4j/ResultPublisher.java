@@ -0,0 +1,165 @@
+package org.bytedream.untis4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * {@link UntisFlow.Publisher} which sends the elements of a result iterator (e.g. a {@link ResultIterator}) to its subscribers, only as fast as they request them.
+ *
+ * <p>Every subscription opens its own iterator when the first element is requested. Elements are read and sent on the given {@link Executor}, and only as long as there is outstanding demand.
+ * If the demand is satisfied, the task returns and the response isn't read any further, so the transfer is throttled by the subscriber and no thread waits for demand.
+ * The iterator is closed when it is exhausted, an error occurs or the subscription gets cancelled</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class ResultPublisher<T> implements UntisFlow.Publisher<T> {
+
+    private final Callable<? extends Iterator<? extends T>> source;
+    private final Executor executor;
+
+    /**
+     * Initialize the {@link ResultPublisher} class
+     *
+     * @param source opens the iterator for a new subscription. If the iterator is {@link Closeable}, it gets closed after the subscription ended
+     * @param executor executor on which the iterator is opened and read
+     *
+     * @since 1.1
+     */
+    public ResultPublisher(Callable<? extends Iterator<? extends T>> source, Executor executor) {
+        this.source = source;
+        this.executor = executor;
+    }
+
+    @Override
+    public void subscribe(UntisFlow.Subscriber<? super T> subscriber) {
+        Objects.requireNonNull(subscriber);
+
+        subscriber.onSubscribe(new ResultSubscription(subscriber));
+    }
+
+    /**
+     * Subscription which reads elements on the executor. {@link ResultSubscription#run()} is never executed concurrently, calls which arrive while it runs are counted in {@code wip}
+     */
+    private final class ResultSubscription implements UntisFlow.Subscription, Runnable {
+
+        private final UntisFlow.Subscriber<? super T> subscriber;
+        private final AtomicLong requested = new AtomicLong();
+        private final AtomicInteger wip = new AtomicInteger();
+        private volatile boolean cancelled = false;
+        private volatile IllegalArgumentException invalidRequest = null;
+
+        private Iterator<? extends T> iterator = null;
+        private boolean done = false;
+
+        private ResultSubscription(UntisFlow.Subscriber<? super T> subscriber) {
+            this.subscriber = subscriber;
+        }
+
+        @Override
+        public void request(long n) {
+            if (n <= 0) {
+                invalidRequest = new IllegalArgumentException("The number of requested elements must be positive, but was " + n);
+            } else {
+                requested.accumulateAndGet(n, (current, add) -> current + add < 0 ? Long.MAX_VALUE : current + add);
+            }
+            schedule();
+        }
+
+        @Override
+        public void cancel() {
+            cancelled = true;
+            schedule();
+        }
+
+        private void schedule() {
+            if (wip.getAndIncrement() == 0) {
+                try {
+                    executor.execute(this);
+                } catch (RejectedExecutionException e) {
+                    wip.set(0);
+                    // no drain runs now, so the iterator of an earlier drain can be closed here. Otherwise its connection and request slot would leak
+                    finish();
+                    if (!cancelled) {
+                        cancelled = true;
+                        subscriber.onError(e);
+                    }
+                }
+            }
+        }
+
+        @Override
+        public void run() {
+            int missed = 1;
+            do {
+                if (!done) {
+                    drain();
+                }
+                missed = wip.addAndGet(-missed);
+            } while (missed != 0);
+        }
+
+        private void drain() {
+            if (cancelled) {
+                finish();
+                return;
+            } else if (invalidRequest != null) {
+                finish();
+                subscriber.onError(invalidRequest);
+                return;
+            }
+
+            long demand = requested.get();
+            if (demand == 0) {
+                return;
+            }
+
+            long emitted = 0;
+            try {
+                if (iterator == null) {
+                    iterator = source.call();
+                }
+
+                while (emitted != demand) {
+                    if (cancelled) {
+                        finish();
+                        return;
+                    } else if (!iterator.hasNext()) {
+                        finish();
+                        subscriber.onComplete();
+                        return;
+                    }
+                    subscriber.onNext(iterator.next());
+                    emitted++;
+                }
+            } catch (Exception e) {
+                finish();
+                subscriber.onError(e instanceof UncheckedIOException ? e.getCause() : e);
+                return;
+            }
+
+            if (demand != Long.MAX_VALUE) {
+                requested.addAndGet(-emitted);
+            }
+        }
+
+        private void finish() {
+            done = true;
+            if (iterator instanceof Closeable) {
+                try {
+                    ((Closeable) iterator).close();
+                } catch (IOException ignored) {
+                }
+            }
+        }
+    }
+
+}
@@ -6,22 +6,52 @@
 package org.bytedream.untis4j;
 
 import org.bytedream.untis4j.responseObjects.*;
+import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.ResponseList;
 import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.io.IOException;
-import java.time.DateTimeException;
+import java.io.InterruptedIOException;
+import java.time.Duration;
 import java.time.LocalDate;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.time.format.DateTimeParseException;
+import java.time.temporal.ChronoUnit;
 import java.util.*;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Function;
+import java.util.stream.Stream;
 
 public class Session {
 
+    private static final byte[] SCHOOL_YEAR_ID = RequestEncoder.key("schoolyearId");
+    private static final byte[] EXAM_TYPE_ID = RequestEncoder.key("examTypeId");
+
     private final Infos infos;
 
     private RequestManager requestManager;
+    private volatile boolean requestPlanning = false;
+    private volatile RequestPlanner requestPlanner = null;
+    private volatile DiskCache diskCache = null;
+    private volatile boolean diskCacheValidated = false;
+    // the latest import time this session has seen, -1 if it wasn't requested yet
+    private volatile long latestImportTime = -1;
+    private final Object importTimeLock = new Object();
+    private volatile ResponseCache<String, Object> responseCache = null;
+    // keys and priorities of the running response cache loads
+    private final Set<List<Object>> loadingGroups = ConcurrentHashMap.newKeySet();
+    private volatile boolean offHeapTimetables = false;
 
     /**
      * Class to do all the Untis stuff.
@@ -93,21 +123,24 @@ public class Session {
      * @since 1.0
      */
     public Response getClassRegEvents(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, Integer id) throws IOException {
-        if (start.isBefore(end)) {
-            throw new DateTimeException("The start date must end after or on the same day as the end date");
+        if (requestPlanning) {
+            DateRange trimmed = getRequestPlanner().trim(start, end);
+            if (trimmed == null) {
+                return new Response(200, new JSONObject().put("result", new JSONArray()));
+            }
+            start = trimmed.getStart();
+            end = trimmed.getEnd();
         }
 
-        HashMap<String, Object> params = new HashMap<>();
-
-        params.put("startDate", start.format(DateTimeFormatter.ofPattern("yyyyMMdd")));
-        params.put("endDate", end.format(DateTimeFormatter.ofPattern("yyyyMMdd")));
+        RequestEncoder encoder = requestManager.getEncoder()
+                .begin(UntisUtils.Methods.GETCLASSREGEVENTS)
+                .dateRangeParams(start, end);
 
         if (elementType != null && id != null) {
-            params.put("type", elementType.getElementType());
-            params.put("id", id);
+            encoder.elementParams(elementType, id);
         }
 
-        Response response = requestManager.POST(UntisUtils.Methods.GETCLASSREGEVENTS.getMethod(), params);
+        Response response = requestManager.POST(encoder.end());
 
         if (response.isError()) {
             throw new IOException(response.getErrorMessage());
@@ -182,6 +215,10 @@ public class Session {
      * @since 1.0
      */
     public Departments getDepartments() throws IOException {
+        return cached("departments", DiskCache.DEPARTMENTS, this::requestDepartments);
+    }
+
+    private Departments requestDepartments() throws IOException {
         Response response = requestManager.POST(UntisUtils.Methods.GETDEPARTMENTS.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
@@ -194,10 +231,7 @@ public class Session {
         Departments departments = new Departments();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject departmentInfo = jsonArray.getJSONObject(i);
-            departments.add(new Departments.DepartmentObject(departmentInfo.getString("name"),
-                    departmentInfo.getInt("id"),
-                    departmentInfo.getString("longName")));
+            departments.add(parseDepartment(jsonArray.getJSONObject(i)));
         }
 
         return departments;
@@ -217,10 +251,13 @@ public class Session {
      * @since 1.0
      */
     public Response getExams(LocalDate start, LocalDate end, int id) throws IOException {
-        Map<String, String> params = UntisUtils.localDateToParams(start, end);
-        params.put("examTypeId", String.valueOf(id));
+        RequestEncoder encoder = requestManager.getEncoder()
+                .begin(UntisUtils.Methods.GETEXAMS)
+                .dateRangeParams(start, end)
+                .intParam(EXAM_TYPE_ID, id)
+                .end();
 
-        Response response = requestManager.POST(UntisUtils.Methods.GETEXAMS.getMethod(), params);
+        Response response = requestManager.POST(encoder);
 
         if (response.isError()) {
             throw new IOException(response.getErrorMessage());
@@ -260,6 +297,10 @@ public class Session {
      * @since 1.0
      */
     public Holidays getHolidays() throws IOException {
+        return cached("holidays", DiskCache.HOLIDAYS, this::requestHolidays);
+    }
+
+    private Holidays requestHolidays() throws IOException {
         Response response = requestManager.POST(UntisUtils.Methods.GETHOLIDAYS.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
@@ -272,12 +313,7 @@ public class Session {
         Holidays holidays = new Holidays();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject holidayInfo = jsonArray.getJSONObject(i);
-            holidays.add(new Holidays.HolidaysObject(holidayInfo.getString("name"),
-                    LocalDate.parse(String.valueOf(holidayInfo.getInt("startDate")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    LocalDate.parse(String.valueOf(holidayInfo.getInt("endDate")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    holidayInfo.getInt("id"),
-                    holidayInfo.getString("longName")));
+            holidays.add(parseHoliday(jsonArray.getJSONObject(i)));
         }
 
         return holidays;
@@ -309,12 +345,17 @@ public class Session {
      * @since 1.0
      */
     public Klassen getKlassen(Integer schoolYearId) throws IOException {
+        return cached(schoolYearId == null ? "klassen" : "klassen-" + schoolYearId, DiskCache.KLASSEN, () -> requestKlassen(schoolYearId));
+    }
+
+    private Klassen requestKlassen(Integer schoolYearId) throws IOException {
         Response response;
 
         if (schoolYearId != null) {
-            response = requestManager.POST(UntisUtils.Methods.GETKLASSEN.getMethod(), new HashMap<String, Integer>() {{
-                put("schoolyearId", schoolYearId);
-            }});
+            response = requestManager.POST(requestManager.getEncoder()
+                    .begin(UntisUtils.Methods.GETKLASSEN)
+                    .intParam(SCHOOL_YEAR_ID, schoolYearId)
+                    .end());
         } else {
             response = requestManager.POST(UntisUtils.Methods.GETKLASSEN.getMethod());
         }
@@ -329,11 +370,7 @@ public class Session {
         Klassen klassen = new Klassen();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject klassenInfo = jsonArray.getJSONObject(i);
-            klassen.add(new Klassen.KlasseObject(klassenInfo.getString("name"),
-                    klassenInfo.getBoolean("active"),
-                    klassenInfo.getInt("id"),
-                    klassenInfo.getString("longName")));
+            klassen.add(parseKlasse(jsonArray.getJSONObject(i)));
         }
 
         return klassen;
@@ -350,7 +387,13 @@ public class Session {
      * @since 1.0
      */
     public LatestImportTime getLatestImportTime() throws IOException {
-        Response response = requestManager.POST(UntisUtils.Methods.GETHOLIDAYS.getMethod());
+        LatestImportTime latestImportTime = requestLatestImportTime();
+        onImportTime(latestImportTime.getLatestImportTime());
+        return latestImportTime;
+    }
+
+    private LatestImportTime requestLatestImportTime() throws IOException {
+        Response response = requestManager.POST(UntisUtils.Methods.GETLATESTIMPORTTIME.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
 
@@ -358,7 +401,7 @@ public class Session {
             throw new IOException(response.getErrorMessage());
         }
 
-        return new LatestImportTime(jsonResponse.getInt("result"));
+        return new LatestImportTime(jsonResponse.getLong("result"));
     }
 
     /**
@@ -372,6 +415,10 @@ public class Session {
      * @since 1.0
      */
     public Rooms getRooms() throws IOException {
+        return cached("rooms", DiskCache.ROOMS, this::requestRooms);
+    }
+
+    private Rooms requestRooms() throws IOException {
         Response response = requestManager.POST(UntisUtils.Methods.GETROOMS.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
@@ -384,12 +431,7 @@ public class Session {
         Rooms rooms = new Rooms();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject roomInfo = jsonArray.getJSONObject(i);
-            rooms.add(new Rooms.RoomObject(roomInfo.getString("name"),
-                    roomInfo.getBoolean("active"),
-                    roomInfo.getInt("id"),
-                    roomInfo.getString("building"),
-                    roomInfo.getString("longName")));
+            rooms.add(parseRoom(jsonArray.getJSONObject(i)));
         }
 
         return rooms;
@@ -406,6 +448,10 @@ public class Session {
      * @since 1.0
      */
     public SchoolYears getSchoolYears() throws IOException {
+        return cached("schoolYears", DiskCache.SCHOOL_YEARS, this::requestSchoolYears);
+    }
+
+    private SchoolYears requestSchoolYears() throws IOException {
         Response response = requestManager.POST(UntisUtils.Methods.GETSCHOOLYEARS.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
@@ -418,11 +464,7 @@ public class Session {
         SchoolYears schoolYears = new SchoolYears();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject schoolYearInfo = jsonArray.getJSONObject(i);
-            schoolYears.add(new SchoolYears.SchoolYearObject(schoolYearInfo.getString("name"),
-                    LocalDate.parse(String.valueOf(schoolYearInfo.getInt("startDate")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    LocalDate.parse(String.valueOf(schoolYearInfo.getInt("endDate")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    schoolYearInfo.getInt("id")));
+            schoolYears.add(parseSchoolYear(jsonArray.getJSONObject(i)));
         }
 
         return schoolYears;
@@ -458,6 +500,10 @@ public class Session {
      * @since 1.0
      */
     public Subjects getSubjects() throws IOException {
+        return cached("subjects", DiskCache.SUBJECTS, this::requestSubjects);
+    }
+
+    private Subjects requestSubjects() throws IOException {
         Response response = requestManager.POST(UntisUtils.Methods.GETSUBJECTS.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
@@ -470,14 +516,7 @@ public class Session {
         Subjects subjects = new Subjects();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject subjectInfo = jsonArray.getJSONObject(i);
-            subjects.add(new Subjects.SubjectObject(subjectInfo.getString("name"),
-                    subjectInfo.getBoolean("active"),
-                    subjectInfo.getInt("id"),
-                    subjectInfo.getString("alternateName"),
-                    subjectInfo.getString("backColor"),
-                    subjectInfo.getString("foreColor"),
-                    subjectInfo.getString("longName")));
+            subjects.add(parseSubject(jsonArray.getJSONObject(i)));
         }
 
         return subjects;
@@ -494,6 +533,10 @@ public class Session {
      * @since 1.0
      */
     public Teachers getTeachers() throws IOException {
+        return cached("teachers", DiskCache.TEACHERS, this::requestTeachers);
+    }
+
+    private Teachers requestTeachers() throws IOException {
         Response response = requestManager.POST(UntisUtils.Methods.GETTEACHERS.getMethod());
 
         JSONObject jsonResponse = response.getResponse();
@@ -506,13 +549,7 @@ public class Session {
         Teachers teachers = new Teachers();
 
         for (int i = 0; i < jsonArray.length(); i++) {
-            JSONObject teacherInfo = jsonArray.getJSONObject(i);
-            teachers.add(new Teachers.TeacherObject(teacherInfo.getString("name"),
-                    teacherInfo.getBoolean("active"),
-                    teacherInfo.getInt("id"),
-                    teacherInfo.getString("title"),
-                    teacherInfo.getString("foreName"),
-                    teacherInfo.getString("longName")));
+            teachers.add(parseTeacher(jsonArray.getJSONObject(i)));
         }
 
         return teachers;
@@ -594,12 +631,419 @@ public class Session {
         if (response.isError()) {
             throw new IOException(response.getErrorMessage());
         }
-        JSONObject jsonObject = jsonResponse.getJSONObject("result");
+        return parseSchoolYear(jsonResponse.getJSONObject("result"));
+    }
+
+    /**
+     * Returns the {@link DiskCache} which is used by this session
+     *
+     * @return the {@link DiskCache}, {@code null} if no disk cache is used
+     *
+     * @since 1.1
+     */
+    public DiskCache getDiskCache() {
+        return diskCache;
+    }
+
+    /**
+     * Sets the {@link DiskCache} which is used by this session.
+     *
+     * <p>If set, the masterdata lists (departments, holidays, klassen, rooms, school years, subjects and teachers) and timetables are loaded from the disk cache if possible
+     * and stored in it after they were requested. Before the disk cache is used the first time, it gets revalidated with the latest import time, which is the only request
+     * a warm restart needs for cached data. Afterwards it gets revalidated every time the session sees a newer import time
+     * (e.g. by {@link Session#getLatestImportTime()}, which {@link TimetableWatcher} calls at every poll)</p>
+     *
+     * @param diskCache the {@link DiskCache}, {@code null} to not use a disk cache
+     *
+     * @since 1.1
+     */
+    public void setDiskCache(DiskCache diskCache) {
+        this.diskCache = diskCache;
+        this.diskCacheValidated = false;
+    }
+
+    /**
+     * Revalidates the {@link DiskCache} with the latest import time. All cached data is deleted if the school data was changed since it was cached
+     *
+     * @return {@code true} if the cached data is still valid
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public boolean revalidateDiskCache() throws IOException {
+        DiskCache diskCache = this.diskCache;
+        if (diskCache == null) {
+            return false;
+        }
+
+        long importTime = requestLatestImportTime().getLatestImportTime();
+        boolean valid;
+        synchronized (importTimeLock) {
+            valid = diskCache.revalidate(infos, importTime);
+            diskCacheValidated = true;
+        }
+        onImportTime(importTime);
+        return valid;
+    }
+
+    /**
+     * Is called with every import time the session requests. If the school data changed since the previous one, the cached data gets revalidated
+     */
+    private void onImportTime(long importTime) throws IOException {
+        synchronized (importTimeLock) {
+            long previous = latestImportTime;
+            latestImportTime = importTime;
+
+            ResponseCache<String, Object> responseCache = this.responseCache;
+            if (responseCache != null && previous != importTime) {
+                // new values are cached with the new import time in their keys, the old ones would only take space until they get evicted
+                String previousPrefix = getCachePrefix(previous);
+                responseCache.invalidateAll(key -> key.startsWith(previousPrefix));
+            }
+
+            DiskCache diskCache = this.diskCache;
+            if (diskCache != null && (previous != importTime || !diskCacheValidated)) {
+                diskCache.revalidate(infos, importTime);
+                diskCacheValidated = true;
+            }
+        }
+    }
+
+    private DiskCache getValidatedDiskCache() throws IOException {
+        if (diskCache != null && !diskCacheValidated) {
+            revalidateDiskCache();
+        }
+        return diskCache;
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T extends ResponseList<?>> T cached(String element, DiskCache.Codec<T> codec, ResponseCache.Loader<T> loader) throws IOException {
+        ResponseCache<String, Object> responseCache = this.responseCache;
+        if (responseCache == null) {
+            return loadCached(element, codec, loader);
+        }
+        return (T) getCached(responseCache, getCacheKey(element), () -> loadCached(element, codec, loader).toImmutable());
+    }
+
+    /**
+     * Returns a value of the response cache, or loads it with the priority of the current thread.
+     *
+     * <p>The cache merges concurrent loads of the same key and priority. A caller joins a running load with the same or a higher priority,
+     * but not one with a lower priority, because that load may wait behind other requests for a long time. The priority is also used for the refresh-ahead reloads of the value</p>
+     */
+    private Object getCached(ResponseCache<String, Object> responseCache, String key, ResponseCache.Loader<Object> loader) throws IOException {
+        RequestLimiter.Priority priority = RequestManager.getPriority();
+
+        // the priorities are ordered from the highest to the lowest
+        RequestLimiter.Priority group = priority;
+        for (RequestLimiter.Priority loadingPriority : RequestLimiter.Priority.values()) {
+            if (loadingPriority.compareTo(priority) >= 0) {
+                break;
+            } else if (loadingGroups.contains(Arrays.asList(key, loadingPriority))) {
+                group = loadingPriority;
+                break;
+            }
+        }
+
+        // the loader runs on the current thread, or on the refresh executor for refresh-ahead reloads.
+        // It's sent with the priority of its group, in case the joined load finished just before and this caller loads the value itself
+        RequestLimiter.Priority loadPriority = group;
+        return responseCache.get(key, group, () -> withPriority(loadPriority, () -> {
+            List<Object> loadingGroup = Arrays.asList(key, loadPriority);
+            loadingGroups.add(loadingGroup);
+            try {
+                return loader.load();
+            } finally {
+                loadingGroups.remove(loadingGroup);
+            }
+        }));
+    }
+
+    private <T> T loadCached(String element, DiskCache.Codec<T> codec, ResponseCache.Loader<T> loader) throws IOException {
+        DiskCache diskCache = getValidatedDiskCache();
+        if (diskCache == null) {
+            return loader.load();
+        }
+
+        T cached = diskCache.load(infos, element, codec);
+        if (cached == null) {
+            cached = loader.load();
+            diskCache.store(infos, element, codec, cached);
+        }
+        return cached;
+    }
+
+    /**
+     * Returns the {@link ResponseCache} which is used by this session
+     *
+     * @return the {@link ResponseCache}, {@code null} if no response cache is used
+     *
+     * @since 1.1
+     */
+    public ResponseCache<String, Object> getResponseCache() {
+        return responseCache;
+    }
+
+    /**
+     * Sets the {@link ResponseCache} which is used by this session.
+     *
+     * <p>If set, the masterdata lists (departments, holidays, klassen, rooms, school years, subjects and teachers) and timetables are kept in the response cache.
+     * Cached lists are shared between all callers, so they are immutable (see {@link ResponseList#toImmutable()}).
+     * The keys start with the server, school name, username and the latest import time the session has seen, so one cache can be shared by sessions of different schools and users.
+     * When the session sees a newer import time (e.g. by {@link Session#getLatestImportTime()}, which {@link TimetableWatcher} calls at every poll), its cached values are dropped.
+     * If a {@link DiskCache} is set too, values which aren't in the response cache are loaded from the disk cache</p>
+     *
+     * @param responseCache the {@link ResponseCache}, {@code null} to not use a response cache
+     *
+     * @since 1.1
+     */
+    public void setResponseCache(ResponseCache<String, Object> responseCache) {
+        this.responseCache = responseCache;
+    }
+
+    /**
+     * Returns if timetables are stored off-heap in the response cache
+     *
+     * @return if timetables are stored off-heap
+     *
+     * @see Session#setOffHeapTimetables(boolean)
+     *
+     * @since 1.1
+     */
+    public boolean isOffHeapTimetables() {
+        return offHeapTimetables;
+    }
+
+    /**
+     * Sets if timetables are stored off-heap in the response cache.
+     *
+     * <p>If enabled, timetables are stored as {@link TimetableArchive} in direct memory (see {@link TimetableArchive#allocateDirect(Timetable)}) and decoded on every cache hit.
+     * This keeps big timetable caches out of the heap at the cost of decoding the lessons again</p>
+     *
+     * @param offHeapTimetables if timetables should be stored off-heap
+     *
+     * @since 1.1
+     */
+    public void setOffHeapTimetables(boolean offHeapTimetables) {
+        this.offHeapTimetables = offHeapTimetables;
+    }
+
+    /**
+     * Returns the {@link RequestLimiter} which limits the requests of this session
+     *
+     * @return the {@link RequestLimiter}, {@code null} if the requests aren't limited
+     *
+     * @since 1.1
+     */
+    public RequestLimiter getRequestLimiter() {
+        return requestManager.getRequestLimiter();
+    }
+
+    /**
+     * Sets the {@link RequestLimiter} which limits the requests of this session.
+     *
+     * <p>The server and school name are used as tenant, so one limiter can be shared by sessions of different schools (see {@link MultiSchoolClient}).
+     * A request holds its slot until the response is read. For {@link Session#streamTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int)} and the {@code publish} methods
+     * this is until the stream is consumed or closed, or the subscription is completed or cancelled, so idle streams and subscribers can use up the limit of the school</p>
+     *
+     * @param requestLimiter the {@link RequestLimiter}, {@code null} to not limit the requests
+     *
+     * @since 1.1
+     */
+    public void setRequestLimiter(RequestLimiter requestLimiter) {
+        requestManager.setRequestLimiter(requestLimiter);
+    }
+
+    /**
+     * Sends the requests of {@code request} with a priority.
+     *
+     * <p>If a {@link RequestLimiter} is set, waiting requests with a higher priority get a free slot before requests with a lower priority,
+     * so e.g. interactive lookups ({@link RequestLimiter.Priority#HIGH}) overtake a background sync ({@link RequestLimiter.Priority#LOW}) of the same session.
+     * The priority applies to all requests which are sent by the current thread while {@code request} runs, and to the chunk and publisher requests it starts</p>
+     *
+     * @param priority the priority of the requests
+     * @param request the requests to send
+     * @param <T> the result type
+     * @return the result of {@code request}
+     * @throws IOException if an IO Exception occurs
+     *
+     * @see RequestLimiter
+     * @since 1.1
+     */
+    public <T> T withPriority(RequestLimiter.Priority priority, Request<T> request) throws IOException {
+        RequestLimiter.Priority previous = RequestManager.setPriority(priority);
+        try {
+            return request.send();
+        } finally {
+            RequestManager.setPriority(previous);
+        }
+    }
+
+    /**
+     * Sends the requests of {@code request} with a deadline.
+     *
+     * <p>Requests which are still waiting, sending or reading when the deadline passes are aborted with {@link java.net.SocketTimeoutException}</p>
+     *
+     * @param timeout time from now after which the requests time out
+     * @param request the requests to send
+     * @param <T> the result type
+     * @return the result of {@code request}
+     * @throws IOException if an IO Exception occurs
+     *
+     * @see Session#withCancellation(CancellationToken, Request)
+     * @since 1.1
+     */
+    public <T> T withDeadline(Duration timeout, Request<T> request) throws IOException {
+        return withCancellation(new CancellationToken(timeout), request);
+    }
+
+    /**
+     * Sends the requests of {@code request} with a {@link CancellationToken}.
+     *
+     * <p>If the token gets cancelled or its deadline passes, requests which wait for a {@link RequestLimiter} slot stop waiting,
+     * open http connections get disconnected and reading or parsing the responses stops. The aborted requests throw {@link java.io.InterruptedIOException}.
+     * Like {@link Session#withPriority(RequestLimiter.Priority, Request)}, the token applies to all requests of the current thread while {@code request} runs,
+     * and to the chunk and publisher requests it starts. If an enclosing call has a token too, the requests are cancelled if one of the tokens gets cancelled
+     * and time out at the earlier deadline of both</p>
+     *
+     * @param token the token
+     * @param request the requests to send
+     * @param <T> the result type
+     * @return the result of {@code request}
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public <T> T withCancellation(CancellationToken token, Request<T> request) throws IOException {
+        CancellationToken previous = RequestManager.getCancellationToken();
+        // inside an enclosing call, the requests follow both tokens and the earlier deadline of them
+        CancellationToken effective = previous != null && token != null && previous != token ? new CancellationToken(token, previous) : token;
+        RequestManager.setCancellationToken(effective);
+        try {
+            return request.send();
+        } finally {
+            if (effective != token) {
+                effective.unlink();
+            }
+            RequestManager.setCancellationToken(previous);
+        }
+    }
 
-        return new SchoolYears.SchoolYearObject(jsonObject.getString("name"),
-                LocalDate.parse(String.valueOf(jsonObject.getInt("startDate")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                LocalDate.parse(String.valueOf(jsonObject.getInt("endDate")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                jsonObject.getInt("id"));
+    /**
+     * Returns the connect and read timeout of every request
+     *
+     * @return the timeout, {@code null} if the requests don't time out
+     *
+     * @since 1.1
+     */
+    public Duration getTimeout() {
+        return requestManager.getTimeout();
+    }
+
+    /**
+     * Sets the connect and read timeout of every request. Unlike a deadline (see {@link Session#withDeadline(Duration, Request)}), the timeout applies to every single connect and read
+     *
+     * @param timeout the timeout, {@code null} if the requests shouldn't time out
+     *
+     * @since 1.1
+     */
+    public void setTimeout(Duration timeout) {
+        requestManager.setTimeout(timeout);
+    }
+
+    /**
+     * Wraps the request, so it's sent with the priority and cancellation token of the current thread when it runs on another thread
+     */
+    private <T> Request<T> inCurrentContext(Request<T> request) {
+        RequestLimiter.Priority priority = RequestManager.getPriority();
+        CancellationToken token = RequestManager.getCancellationToken();
+        return () -> withPriority(priority, () -> {
+            // the linked token of a nested call gets unlinked when the call returns, so a deferred request follows the original tokens again
+            CancellationToken relinked = token != null ? token.relink() : null;
+            try {
+                return withCancellation(relinked, request);
+            } finally {
+                if (relinked != token) {
+                    relinked.unlink();
+                }
+            }
+        });
+    }
+
+    /**
+     * Returns the infos the session was logged in with
+     *
+     * @return the infos
+     */
+    Infos getInfos() {
+        return infos;
+    }
+
+    private String getCacheKey(String element) {
+        return getCachePrefix(latestImportTime) + element;
+    }
+
+    /**
+     * Returns the prefix of the response cache keys of this session. The results depend on the rights of the user and the imported school data,
+     * so the prefix contains the server, school, username and import time. The parts are length prefixed, so that they can't be confused with each other
+     */
+    private String getCachePrefix(long importTime) {
+        StringBuilder prefix = new StringBuilder();
+        for (String part : new String[]{infos.getServer(), infos.getSchoolName(), infos.getUsername()}) {
+            prefix.append(part.length()).append(':').append(part).append('/');
+        }
+        return prefix.append(importTime).append('/').toString();
+    }
+
+    /**
+     * Returns the {@link RequestPlanner} with the holidays and school years of the school.
+     *
+     * <p>The holidays and school years are requested on the first call and cached until the session gets refreshed</p>
+     *
+     * @return the {@link RequestPlanner}
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public RequestPlanner getRequestPlanner() throws IOException {
+        RequestPlanner requestPlanner = this.requestPlanner;
+
+        if (requestPlanner == null) {
+            requestPlanner = new RequestPlanner(getHolidays(), getSchoolYears());
+            this.requestPlanner = requestPlanner;
+        }
+
+        return requestPlanner;
+    }
+
+    /**
+     * Returns if request planning is enabled
+     *
+     * @return if request planning is enabled
+     *
+     * @see Session#setRequestPlanning(boolean)
+     *
+     * @since 1.1
+     */
+    public boolean isRequestPlanning() {
+        return requestPlanning;
+    }
+
+    /**
+     * Enables or disables request planning.
+     *
+     * <p>If enabled, {@link Session#getTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int)}, {@link Session#getLazyTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int)}
+     * and {@link Session#getClassRegEvents(LocalDate, LocalDate, UntisUtils.ElementType, Integer)} trim the requested time period to the days which are in a school year and not in holidays.
+     * If no such day is left, no request is sent and an empty result is returned. Disabled by default</p>
+     *
+     * @param requestPlanning if request planning should be enabled
+     *
+     * @see RequestPlanner
+     *
+     * @since 1.1
+     */
+    public void setRequestPlanning(boolean requestPlanning) {
+        this.requestPlanning = requestPlanning;
     }
 
     /**
@@ -617,12 +1061,211 @@ public class Session {
      * @since 1.0
      */
     public Timetable getTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id) throws IOException {
-        HashMap<String, String> params = UntisUtils.localDateToParams(start, end);
+        return getTimetable(start, end, elementType, id, false);
+    }
+
+    /**
+     * Returns the lessons / timetable for a specific time period, requested in concurrent chunks.
+     *
+     * <p>The time period is split at the boundaries of calendar weeks or months, days outside of the school years and inside of holidays are skipped (see {@link RequestPlanner})
+     * and the other chunks are requested with at most {@code maxConcurrency} requests at the same time.
+     * The result contains the same lessons in the same order as {@link Session#getTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int)},
+     * but long time periods (e.g. a whole school year) are usually returned much faster.
+     * The chunks are requested on a shared pool of daemon threads, which is created on first use</p>
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @param elementType type on which the timetable should be oriented
+     * @param id id of the {@code elementType}
+     * @param chunkUnit size of the chunks, {@link ChronoUnit#DAYS}, {@link ChronoUnit#WEEKS} or {@link ChronoUnit#MONTHS}
+     * @param maxConcurrency maximum number of requests which are sent at the same time
+     * @return {@link Timetable} with all information about the lessons
+     * @throws IOException if an IO Exception occurs in any of the requests
+     *
+     * @see Session#getTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, ChronoUnit, int, Executor)
+     * @since 1.1
+     */
+    public Timetable getTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id, ChronoUnit chunkUnit, int maxConcurrency) throws IOException {
+        return getTimetable(start, end, elementType, id, chunkUnit, maxConcurrency, ChunkExecutor.EXECUTOR);
+    }
+
+    /**
+     * Returns the lessons / timetable for a specific time period, requested in concurrent chunks on the given executor.
+     *
+     * <p>Works like {@link Session#getTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, ChronoUnit, int)}, but the chunks are requested on {@code executor}.
+     * At most {@code maxConcurrency} chunks are submitted at the same time, the calling thread waits until one of them finished before it submits the next one</p>
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @param elementType type on which the timetable should be oriented
+     * @param id id of the {@code elementType}
+     * @param chunkUnit size of the chunks, {@link ChronoUnit#DAYS}, {@link ChronoUnit#WEEKS} or {@link ChronoUnit#MONTHS}
+     * @param maxConcurrency maximum number of requests which are sent at the same time
+     * @param executor executor on which the chunks are requested
+     * @return {@link Timetable} with all information about the lessons
+     * @throws IOException if an IO Exception occurs in any of the requests
+     *
+     * @since 1.1
+     */
+    public Timetable getTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id, ChronoUnit chunkUnit, int maxConcurrency, Executor executor) throws IOException {
+        if (maxConcurrency < 1) {
+            throw new IllegalArgumentException("The maximum concurrency must be at least 1, but was " + maxConcurrency);
+        }
+
+        List<DateRange> chunks = new ArrayList<>();
+        for (DateRange schoolDays : getRequestPlanner().plan(start, end)) {
+            chunks.addAll(schoolDays.split(chunkUnit));
+        }
+
+        if (chunks.isEmpty()) {
+            return new Timetable();
+        } else if (chunks.size() == 1 || maxConcurrency == 1) {
+            Timetable timetable = new Timetable();
+            for (DateRange chunk : chunks) {
+                timetable.addAll(getTimetable(chunk.getStart(), chunk.getEnd(), elementType, id, false));
+            }
+            return timetable;
+        }
+
+        Semaphore running = new Semaphore(maxConcurrency);
+        AtomicReference<Future<Timetable>> failed = new AtomicReference<>();
+        List<Future<Timetable>> futures = new ArrayList<>(chunks.size());
+        try {
+            for (DateRange chunk : chunks) {
+                running.acquire();
+                // a failed chunk fails the whole timetable, so the remaining chunks aren't requested anymore
+                if (failed.get() != null) {
+                    failed.get().get();
+                }
 
-        params.put("type", String.valueOf(elementType.getElementType()));
-        params.put("id", String.valueOf(id));
+                FutureTask<Timetable> future = new FutureTask<Timetable>(inCurrentContext(() -> getTimetable(chunk.getStart(), chunk.getEnd(), elementType, id, false))::send) {
+                    @Override
+                    protected void done() {
+                        try {
+                            get();
+                        } catch (ExecutionException e) {
+                            failed.compareAndSet(null, this);
+                        } catch (InterruptedException | CancellationException ignored) {
+                        }
+                        running.release();
+                    }
+                };
+                futures.add(future);
+                executor.execute(future);
+            }
 
-        Response response = requestManager.POST("getTimetable", params);
+            // the chunks are ordered and don't overlap, so appending the sorted chunk timetables keeps the whole timetable sorted
+            Timetable timetable = new Timetable();
+            for (Future<Timetable> future : futures) {
+                timetable.addAll(future.get());
+            }
+            return timetable;
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException(e.getCause());
+        } catch (RejectedExecutionException e) {
+            throw new IOException("The executor rejected a timetable chunk", e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the timetable chunks");
+        } finally {
+            for (Future<Timetable> future : futures) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Returns the lessons / timetable for a specific time period, with lessons which decode their fields only on first access.
+     *
+     * <p>Works like {@link Session#getTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int)}, but every lesson is a {@link Timetable.LazyLesson}.
+     * Useful if a big timetable gets only filtered by date or time (e.g. {@link Timetable#searchByDate(LocalDate)}) or counted, because the other fields are never decoded then</p>
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @param elementType type on which the timetable should be oriented
+     * @param id id of the {@code elementType}
+     * @return {@link Timetable} with all information about the lessons
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public Timetable getLazyTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id) throws IOException {
+        return getTimetable(start, end, elementType, id, true);
+    }
+
+    /**
+     * Returns the lessons for a specific time period as {@link Stream}, which is fed incrementally while the response is read from the server.
+     *
+     * <p>Unlike {@link Session#getTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int)} the lessons aren't buffered and sorted, they are returned in the order the server sends them.
+     * The first lessons can be processed before the whole response is transferred and short-circuiting operations (e.g. {@link Stream#findFirst()}) stop reading.
+     * The stream holds the connection (and the request slot of a {@link RequestLimiter}) open until it's fully consumed, so it should be used in a try-with-resources statement</p>
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @param elementType type on which the timetable should be oriented
+     * @param id id of the {@code elementType}
+     * @return {@link Stream} with the lessons
+     * @throws IOException if an IO Exception occurs or the response contains an error
+     *
+     * @see ResultIterator
+     *
+     * @since 1.1
+     */
+    public Stream<Timetable.Lesson> streamTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id) throws IOException {
+        RequestEncoder encoder = requestManager.getEncoder()
+                .begin(UntisUtils.Methods.GETTIMETABLE)
+                .dateRangeParams(start, end)
+                .elementParams(elementType, id)
+                .end();
+
+        return requestManager.POSTStream(encoder, Timetable.Lesson::parse).stream();
+    }
+
+    private Timetable getTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id, boolean lazy) throws IOException {
+        if (requestPlanning) {
+            DateRange trimmed = getRequestPlanner().trim(start, end);
+            if (trimmed == null) {
+                return new Timetable();
+            }
+            start = trimmed.getStart();
+            end = trimmed.getEnd();
+        }
+
+        ResponseCache<String, Object> responseCache = this.responseCache;
+        if (responseCache == null) {
+            return loadTimetable(start, end, elementType, id, lazy);
+        }
+
+        LocalDate trimmedStart = start;
+        LocalDate trimmedEnd = end;
+        String element = "timetable-" + elementType.name().toLowerCase() + "-" + id + "/" + start + "/" + end + (lazy ? "/lazy" : "");
+        Object cached = getCached(responseCache, getCacheKey(element), () -> {
+            Timetable timetable = loadTimetable(trimmedStart, trimmedEnd, elementType, id, lazy);
+            return offHeapTimetables ? TimetableArchive.allocateDirect(timetable) : timetable.toImmutable();
+        });
+
+        return cached instanceof TimetableArchive ? ((TimetableArchive) cached).toTimetable() : (Timetable) cached;
+    }
+
+    private Timetable loadTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id, boolean lazy) throws IOException {
+        DiskCache diskCache = getValidatedDiskCache();
+        if (diskCache != null) {
+            Timetable cached = diskCache.loadTimetable(infos, elementType, id, start, end);
+            if (cached != null) {
+                return cached;
+            }
+        }
+
+        RequestEncoder encoder = requestManager.getEncoder()
+                .begin(UntisUtils.Methods.GETTIMETABLE)
+                .dateRangeParams(start, end)
+                .elementParams(elementType, id)
+                .end();
+
+        Response response = requestManager.POST(encoder);
 
         JSONObject jsonResponse = response.getResponse();
 
@@ -632,55 +1275,227 @@ public class Session {
         JSONArray jsonArray = jsonResponse.getJSONArray("result");
 
         Timetable timetable = new Timetable();
+        timetable.ensureCapacity(jsonArray.length());
 
         for (int i = 0; i < jsonArray.length(); i++) {
             JSONObject timetableInfos = jsonArray.getJSONObject(i);
 
-            String[] arrayKeys = {"kl", "te", "su", "ro"};
-            HashMap<Integer, HashSet<Integer>> arrayValues = new HashMap<>();
+            timetable.add(lazy ? new Timetable.LazyLesson(timetableInfos) : Timetable.Lesson.parse(timetableInfos));
+        }
 
-            for (int j = 0; j < arrayKeys.length; j++) {
-                JSONArray arrayJSONArray = timetableInfos.getJSONArray(arrayKeys[j]);
-                HashSet<Integer> values = new HashSet<>();
-                for (int k = 0; k < arrayJSONArray.length(); k++) {
-                    values.add(arrayJSONArray.getJSONObject(k).getInt("id"));
-                }
-                arrayValues.put(j, values);
-            }
+        timetable.sortByDateAndTime();
 
+        if (diskCache != null) {
+            diskCache.storeTimetable(infos, elementType, id, start, end, timetable);
+        }
 
-            LocalTime startTime;
-            LocalTime endTime;
+        return timetable;
+    }
 
-            try {
-                startTime = LocalTime.parse(String.valueOf(timetableInfos.getInt("startTime")), DateTimeFormatter.ofPattern("HHmm"));
-            } catch (DateTimeParseException e) {
-                startTime = LocalTime.parse(String.valueOf(timetableInfos.getInt("startTime")), DateTimeFormatter.ofPattern("Hmm"));
-            }
+    /**
+     * Returns a {@link UntisFlow.Publisher} of the lessons for a specific time period, which reads the response only as fast as the subscriber requests lessons.
+     *
+     * <p>Every subscription sends its own request when the first lesson is requested. The response is read on {@code executor} while there is demand,
+     * so slow subscribers throttle the transfer instead of buffering the whole response. The lessons are sent in the order the server sends them.
+     * If a {@link RequestLimiter} is set, every subscription holds one of its request slots until the response is read completely or the subscription gets cancelled.
+     * A subscriber which stops requesting lessons therefore blocks the slot, and enough idle subscribers block all other requests of the school, so subscriptions should be cancelled if they aren't needed anymore</p>
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @param elementType type on which the timetable should be oriented
+     * @param id id of the {@code elementType}
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see ResultPublisher
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Timetable.Lesson> publishTimetable(LocalDate start, LocalDate end, UntisUtils.ElementType elementType, int id, Executor executor) {
+        return new ResultPublisher<>(inCurrentContext(() -> requestManager.POSTStream(requestManager.getEncoder()
+                .begin(UntisUtils.Methods.GETTIMETABLE)
+                .dateRangeParams(start, end)
+                .elementParams(elementType, id)
+                .end(), Timetable.Lesson::parse))::send, executor);
+    }
 
-            try {
-                endTime = LocalTime.parse(String.valueOf(timetableInfos.getInt("endTime")), DateTimeFormatter.ofPattern("HHmm"));
-            } catch (DateTimeParseException e) {
-                endTime = LocalTime.parse(String.valueOf(timetableInfos.getInt("endTime")), DateTimeFormatter.ofPattern("Hmm"));
-            }
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all klassen, which reads the response only as fast as the subscriber requests klassen
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Klassen.KlasseObject> publishKlassen(Executor executor) {
+        return publish(UntisUtils.Methods.GETKLASSEN, Session::parseKlasse, executor);
+    }
 
-            UntisUtils.LessonCode code = null;
-            if (timetableInfos.has("code")) {
-                code = UntisUtils.LessonCode.valueOf(timetableInfos.getString("code").toUpperCase());
-            }
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all teachers, which reads the response only as fast as the subscriber requests teachers
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Teachers.TeacherObject> publishTeachers(Executor executor) {
+        return publish(UntisUtils.Methods.GETTEACHERS, Session::parseTeacher, executor);
+    }
 
-            timetable.add(new Timetable.Lesson(LocalDate.parse(String.valueOf(timetableInfos.getInt("date")), DateTimeFormatter.ofPattern("yyyyMMdd")),
-                    startTime,
-                    endTime,
-                    arrayValues.get(0),
-                    arrayValues.get(1),
-                    arrayValues.get(3),
-                    arrayValues.get(2),
-                    code,
-                    timetableInfos.getString("activityType")));
-        }
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all rooms, which reads the response only as fast as the subscriber requests rooms
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Rooms.RoomObject> publishRooms(Executor executor) {
+        return publish(UntisUtils.Methods.GETROOMS, Session::parseRoom, executor);
+    }
 
-        return timetable;
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all subjects, which reads the response only as fast as the subscriber requests subjects
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Subjects.SubjectObject> publishSubjects(Executor executor) {
+        return publish(UntisUtils.Methods.GETSUBJECTS, Session::parseSubject, executor);
+    }
+
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all departments, which reads the response only as fast as the subscriber requests departments
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Departments.DepartmentObject> publishDepartments(Executor executor) {
+        return publish(UntisUtils.Methods.GETDEPARTMENTS, Session::parseDepartment, executor);
+    }
+
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all holidays, which reads the response only as fast as the subscriber requests holidays
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<Holidays.HolidaysObject> publishHolidays(Executor executor) {
+        return publish(UntisUtils.Methods.GETHOLIDAYS, Session::parseHoliday, executor);
+    }
+
+    /**
+     * Returns a {@link UntisFlow.Publisher} of all school years, which reads the response only as fast as the subscriber requests school years
+     *
+     * <p>Like {@link Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)}, every subscription holds a request slot of a {@link RequestLimiter}
+     * until the response is read completely or the subscription gets cancelled</p>
+     *
+     * @param executor executor on which the response is read
+     * @return the publisher
+     *
+     * @see Session#publishTimetable(LocalDate, LocalDate, UntisUtils.ElementType, int, Executor)
+     *
+     * @since 1.1
+     */
+    public UntisFlow.Publisher<SchoolYears.SchoolYearObject> publishSchoolYears(Executor executor) {
+        return publish(UntisUtils.Methods.GETSCHOOLYEARS, Session::parseSchoolYear, executor);
+    }
+
+    private <T> UntisFlow.Publisher<T> publish(UntisUtils.Methods method, Function<JSONObject, T> parser, Executor executor) {
+        // the encoder is per thread, so it's only used on the executor thread which also sends the request
+        return new ResultPublisher<>(inCurrentContext(() -> requestManager.POSTStream(requestManager.getEncoder().begin(method).end(), parser))::send, executor);
+    }
+
+    private static Departments.DepartmentObject parseDepartment(JSONObject departmentInfo) {
+        return new Departments.DepartmentObject(departmentInfo.getString("name"),
+                departmentInfo.getInt("id"),
+                departmentInfo.getString("longName"));
+    }
+
+    private static Holidays.HolidaysObject parseHoliday(JSONObject holidayInfo) {
+        return new Holidays.HolidaysObject(holidayInfo.getString("name"),
+                UntisUtils.fromUntisDate(holidayInfo.getInt("startDate")),
+                UntisUtils.fromUntisDate(holidayInfo.getInt("endDate")),
+                holidayInfo.getInt("id"),
+                holidayInfo.getString("longName"));
+    }
+
+    private static Klassen.KlasseObject parseKlasse(JSONObject klassenInfo) {
+        return new Klassen.KlasseObject(klassenInfo.getString("name"),
+                klassenInfo.getBoolean("active"),
+                klassenInfo.getInt("id"),
+                klassenInfo.getString("longName"));
+    }
+
+    private static Rooms.RoomObject parseRoom(JSONObject roomInfo) {
+        return new Rooms.RoomObject(roomInfo.getString("name"),
+                roomInfo.getBoolean("active"),
+                roomInfo.getInt("id"),
+                roomInfo.getString("building"),
+                roomInfo.getString("longName"));
+    }
+
+    private static SchoolYears.SchoolYearObject parseSchoolYear(JSONObject schoolYearInfo) {
+        return new SchoolYears.SchoolYearObject(schoolYearInfo.getString("name"),
+                UntisUtils.fromUntisDate(schoolYearInfo.getInt("startDate")),
+                UntisUtils.fromUntisDate(schoolYearInfo.getInt("endDate")),
+                schoolYearInfo.getInt("id"));
+    }
+
+    private static Subjects.SubjectObject parseSubject(JSONObject subjectInfo) {
+        return new Subjects.SubjectObject(subjectInfo.getString("name"),
+                subjectInfo.getBoolean("active"),
+                subjectInfo.getInt("id"),
+                subjectInfo.getString("alternateName"),
+                subjectInfo.getString("backColor"),
+                subjectInfo.getString("foreColor"),
+                subjectInfo.getString("longName"));
+    }
+
+    private static Teachers.TeacherObject parseTeacher(JSONObject teacherInfo) {
+        return new Teachers.TeacherObject(teacherInfo.getString("name"),
+                teacherInfo.getBoolean("active"),
+                teacherInfo.getInt("id"),
+                teacherInfo.getString("title"),
+                teacherInfo.getString("foreName"),
+                teacherInfo.getString("longName"));
     }
 
     /**
@@ -818,6 +1633,8 @@ public class Session {
         logout();
 
         RequestManager requestManager = new RequestManager(infos);
+        requestManager.setRequestLimiter(this.requestManager.getRequestLimiter());
+        requestManager.setTimeout(this.requestManager.getTimeout());
 
         HashMap<String, Object> params = new HashMap<>();
         params.put("user", infos.getUsername());
@@ -828,6 +1645,7 @@ public class Session {
             throw new LoginException("Failed to login");
         } else {
             this.requestManager = requestManager;
+            this.requestPlanner = null;
         }
     }
 
@@ -860,9 +1678,24 @@ public class Session {
      * @since 1.0
      */
     public static Session login(String username, String password, String server, String schoolName, String userAgent) throws IOException {
-        Infos infos = new Infos(username, password, server, schoolName, userAgent);
+        return login(new Infos(username, password, server, schoolName, userAgent), null);
+    }
+
+    /**
+     * Logs in to the server with a {@link RequestLimiter} which also limits the login request
+     *
+     * @param infos infos about the user and the school
+     * @param requestLimiter the {@link RequestLimiter}, {@code null} to not limit the requests
+     * @return a {@link Session}
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    static Session login(Infos infos, RequestLimiter requestLimiter) throws IOException {
+        String userAgent = infos.getUserAgent();
 
         RequestManager requestManager = new RequestManager(infos);
+        requestManager.setRequestLimiter(requestLimiter);
 
         HashMap<String, String> params = new HashMap<>();
         params.put("user", infos.getUsername());
@@ -876,4 +1709,39 @@ public class Session {
         }
     }
 
+    /**
+     * Requests which are sent with a priority
+     *
+     * @param <T> the result type
+     *
+     * @see Session#withPriority(RequestLimiter.Priority, Request)
+     * @since 1.1
+     */
+    @FunctionalInterface
+    public interface Request<T> {
+
+        /**
+         * Sends the requests
+         *
+         * @return the result
+         * @throws IOException if an IO Exception occurs
+         *
+         * @since 1.1
+         */
+        T send() throws IOException;
+    }
+
+    /**
+     * Holds the pool on which the timetable chunks are requested if no executor is given, it's only created on first use.
+     * Idle threads are stopped after a minute, the number of running chunks is limited by the callers
+     */
+    private static final class ChunkExecutor {
+
+        private static final ExecutorService EXECUTOR = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "untis4j-timetable-chunk");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
 }
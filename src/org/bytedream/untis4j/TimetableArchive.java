@@ -0,0 +1,491 @@
+package org.bytedream.untis4j;
+
+import org.bytedream.untis4j.responseObjects.Timetable;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Compact, versioned binary archive of a timetable, which is read via a memory-mapped file or from direct memory (see {@link TimetableArchive#allocateDirect(Timetable)}).
+ *
+ * <p>Lessons are stored as fixed size records ordered by date and time. Dates are stored as epoch days, times as minute of the day,
+ * id sets and activity types are stored once in dictionaries and referenced by their index. A day index maps every date to its first lesson,
+ * so the lessons of a time period are found with a binary search and only they are decoded. The archive itself is never loaded onto the heap,
+ * reading it is limited by I/O (or the page cache) and not by parsing</p>
+ *
+ * <p>Layout (big endian): a 64 byte header, the day index ({@code int} epoch day and {@code int} first lesson per day),
+ * the lesson records, the offsets and values of the id set dictionary and the activity type dictionary (UTF-8 with an unsigned {@code short} length)</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class TimetableArchive implements Closeable {
+
+    private static final int MAGIC = 0x55344A41;
+    private static final short VERSION = 1;
+
+    private static final int HEADER_SIZE = 64;
+    private static final int DAY_SIZE = 8;
+    // date, start minute, end minute, klassen, teachers, rooms, subjects, code, activity type
+    private static final int LESSON_SIZE = 4 + 2 + 2 + 4 * 4 + 2 + 2;
+
+    private final Closeable channel;
+    private final ByteBuffer buffer;
+
+    private final int lessonCount;
+    private final int dayCount;
+    private final int daysOffset;
+    private final int lessonsOffset;
+    private final int setOffsetsOffset;
+    private final int setValuesOffset;
+
+    private final IntSet[] sets;
+    private final String[] activityTypes;
+
+    private TimetableArchive(Closeable channel, ByteBuffer buffer) throws IOException {
+        this.channel = channel;
+        this.buffer = buffer;
+
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(0) != MAGIC) {
+            throw new IOException("The file is no timetable archive");
+        } else if (buffer.getShort(4) != VERSION) {
+            throw new IOException("Unsupported timetable archive version " + buffer.getShort(4));
+        }
+
+        lessonCount = buffer.getInt(8);
+        dayCount = buffer.getInt(12);
+        sets = new IntSet[buffer.getInt(16)];
+        activityTypes = new String[buffer.getInt(20)];
+        daysOffset = buffer.getInt(24);
+        lessonsOffset = buffer.getInt(28);
+        setOffsetsOffset = buffer.getInt(32);
+        setValuesOffset = buffer.getInt(36);
+        int activityTypesOffset = buffer.getInt(40);
+
+        ByteBuffer strings = buffer.duplicate();
+        strings.position(activityTypesOffset);
+        for (int i = 0; i < activityTypes.length; i++) {
+            byte[] bytes = new byte[strings.getShort() & 0xFFFF];
+            strings.get(bytes);
+            activityTypes[i] = bytes.length == 0 && i == 0 ? null : new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+
+    /**
+     * Writes a timetable as archive
+     *
+     * @param file file to write, gets replaced if it exists
+     * @param timetable timetable to write
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    public static void write(Path file, Timetable timetable) throws IOException {
+        Encoder encoder = new Encoder(timetable);
+
+        try (OutputStream outputStream = Files.newOutputStream(file)) {
+            DataOutputStream output = new DataOutputStream(new BufferedOutputStream(outputStream, 1 << 16));
+            encoder.writeTo(output);
+            output.flush();
+        }
+    }
+
+    /**
+     * Stores a timetable off-heap, in the same format as an archive file.
+     *
+     * <p>The lessons are encoded into a direct {@link ByteBuffer}, only the dictionary of id sets is decoded on the heap when it's used.
+     * Every {@link TimetableArchive#get(int)} creates a new {@link Timetable.Lesson} view which can be garbage collected early,
+     * so big or many timetables can be kept in memory without enlarging the heap or the garbage collection pauses.
+     * The memory is released when the returned archive gets garbage collected, {@link TimetableArchive#close()} does nothing</p>
+     *
+     * @param timetable timetable to store
+     * @return the archive backed by direct memory
+     * @throws IOException if the timetable can't be encoded
+     *
+     * @since 1.1
+     */
+    public static TimetableArchive allocateDirect(Timetable timetable) throws IOException {
+        Encoder encoder = new Encoder(timetable);
+
+        ByteBuffer buffer = ByteBuffer.allocateDirect(encoder.size);
+        encoder.writeTo(new DataOutputStream(new OutputStream() {
+            @Override
+            public void write(int b) {
+                buffer.put((byte) b);
+            }
+
+            @Override
+            public void write(byte[] b, int off, int len) {
+                buffer.put(b, off, len);
+            }
+        }));
+        buffer.flip();
+
+        return new TimetableArchive(null, buffer.asReadOnlyBuffer());
+    }
+
+    /**
+     * Opens an archive
+     *
+     * @param file the archive file
+     * @return the opened archive
+     * @throws IOException if an IO Exception occurs or the file is no (supported) archive
+     *
+     * @since 1.1
+     */
+    public static TimetableArchive open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new TimetableArchive(channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the number of bytes the archive occupies
+     *
+     * @return the number of bytes
+     *
+     * @since 1.1
+     */
+    public int getByteSize() {
+        return buffer.capacity();
+    }
+
+    /**
+     * Returns all lessons of the archive
+     *
+     * @return {@link Timetable} with all lessons, ordered by date and time
+     *
+     * @since 1.1
+     */
+    public Timetable toTimetable() {
+        Timetable timetable = new Timetable();
+        timetable.ensureCapacity(lessonCount);
+        for (int i = 0; i < lessonCount; i++) {
+            timetable.add(get(i));
+        }
+        return timetable;
+    }
+
+    /**
+     * Returns the number of lessons in the archive
+     *
+     * @return the number of lessons
+     *
+     * @since 1.1
+     */
+    public int size() {
+        return lessonCount;
+    }
+
+    /**
+     * Returns the date of the first lesson
+     *
+     * @return the date of the first lesson, {@code null} if the archive is empty
+     *
+     * @since 1.1
+     */
+    public LocalDate getFirstDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(buffer.getInt(daysOffset));
+    }
+
+    /**
+     * Returns the date of the last lesson
+     *
+     * @return the date of the last lesson, {@code null} if the archive is empty
+     *
+     * @since 1.1
+     */
+    public LocalDate getLastDate() {
+        return dayCount == 0 ? null : LocalDate.ofEpochDay(buffer.getInt(daysOffset + (dayCount - 1) * DAY_SIZE));
+    }
+
+    /**
+     * Returns the lesson at the given position. Lessons are ordered by date and time
+     *
+     * @param index position of the lesson
+     * @return the lesson
+     *
+     * @since 1.1
+     */
+    public Timetable.Lesson get(int index) {
+        if (index < 0 || index >= lessonCount) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + lessonCount);
+        }
+
+        int offset = lessonsOffset + index * LESSON_SIZE;
+        int code = buffer.getShort(offset + 24);
+        return new Timetable.Lesson(LocalDate.ofEpochDay(buffer.getInt(offset)),
+                LocalTime.ofSecondOfDay(buffer.getShort(offset + 4) * 60),
+                LocalTime.ofSecondOfDay(buffer.getShort(offset + 6) * 60),
+                getSet(buffer.getInt(offset + 8)),
+                getSet(buffer.getInt(offset + 12)),
+                getSet(buffer.getInt(offset + 16)),
+                getSet(buffer.getInt(offset + 20)),
+                code == 0 ? null : UntisUtils.LessonCode.values()[code - 1],
+                activityTypes[buffer.getShort(offset + 26) & 0xFFFF]);
+    }
+
+    /**
+     * Returns the position of the first lesson which is on or after the given date
+     *
+     * @param date the date
+     * @return the position of the first lesson on or after the date, {@link TimetableArchive#size()} if there is none
+     *
+     * @since 1.1
+     */
+    public int indexOf(LocalDate date) {
+        long epochDay = date.toEpochDay();
+        int low = 0;
+        int high = dayCount;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (buffer.getInt(daysOffset + middle * DAY_SIZE) < epochDay) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low == dayCount ? lessonCount : buffer.getInt(daysOffset + low * DAY_SIZE + 4);
+    }
+
+    /**
+     * Reads the lessons of a time period
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @return {@link Timetable} with the lessons of the time period, ordered by date and time
+     *
+     * @since 1.1
+     */
+    public Timetable read(LocalDate start, LocalDate end) {
+        int from = indexOf(start);
+        int to = indexOf(end.plusDays(1));
+
+        Timetable timetable = new Timetable();
+        timetable.ensureCapacity(Math.max(0, to - from));
+        for (int i = from; i < to; i++) {
+            timetable.add(get(i));
+        }
+        return timetable;
+    }
+
+    /**
+     * Returns a {@link Stream} over the lessons of a time period, which decodes every lesson only when it's consumed.
+     * Useful to scan long time periods without holding all lessons in memory
+     *
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @return {@link Stream} with the lessons of the time period, ordered by date and time
+     *
+     * @since 1.1
+     */
+    public Stream<Timetable.Lesson> stream(LocalDate start, LocalDate end) {
+        int from = indexOf(start);
+        int to = Math.max(from, indexOf(end.plusDays(1)));
+
+        PrimitiveIterator.OfInt indexes = new PrimitiveIterator.OfInt() {
+            private int next = from;
+
+            @Override
+            public boolean hasNext() {
+                return next < to;
+            }
+
+            @Override
+            public int nextInt() {
+                if (next >= to) {
+                    throw new NoSuchElementException();
+                }
+                return next++;
+            }
+        };
+
+        return StreamSupport.intStream(Spliterators.spliterator(indexes, to - from, Spliterator.ORDERED | Spliterator.SIZED | Spliterator.IMMUTABLE), false)
+                .mapToObj(this::get);
+    }
+
+    /**
+     * Closes the archive file. The mapping is released by the garbage collector, the archive shouldn't be used afterwards
+     *
+     * @throws IOException if an IO Exception occurs
+     *
+     * @since 1.1
+     */
+    @Override
+    public void close() throws IOException {
+        if (channel != null) {
+            channel.close();
+        }
+    }
+
+    private IntSet getSet(int index) {
+        IntSet set = sets[index];
+
+        if (set == null) {
+            int from = buffer.getInt(setOffsetsOffset + index * 4);
+            int to = buffer.getInt(setOffsetsOffset + index * 4 + 4);
+            int[] values = new int[to - from];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = buffer.getInt(setValuesOffset + (from + i) * 4);
+            }
+            set = IntSet.of(values);
+            sets[index] = set;
+        }
+
+        return set;
+    }
+
+    /**
+     * Builds the dictionaries and the section offsets of a timetable, and writes the archive sequentially
+     */
+    private static class Encoder {
+
+        private final Timetable lessons = new Timetable();
+        private final Map<IntSet, Integer> setIndexes = new HashMap<>();
+        private final List<IntSet> sets = new ArrayList<>();
+        private final Map<String, Integer> activityTypeIndexes = new HashMap<>();
+        private final List<byte[]> activityTypes = new ArrayList<>();
+
+        private int dayCount = 0;
+        private final int daysOffset;
+        private final int lessonsOffset;
+        private final int setOffsetsOffset;
+        private final int setValuesOffset;
+        private final int activityTypesOffset;
+        private final int size;
+
+        private Encoder(Timetable timetable) throws IOException {
+            lessons.addAll(timetable);
+            lessons.sortByDateAndTime();
+
+            // index 0 is reserved for lessons without activity type
+            activityTypes.add(new byte[0]);
+
+            long previousDay = Long.MIN_VALUE;
+            long setValueCount = 0;
+            long activityTypesSize = 2;
+            for (Timetable.Lesson lesson : lessons) {
+                if (lesson.getDate().toEpochDay() != previousDay) {
+                    previousDay = lesson.getDate().toEpochDay();
+                    dayCount++;
+                }
+                for (IntSet ids : new IntSet[]{lesson.getKlassenIds(), lesson.getTeacherIds(), lesson.getRoomIds(), lesson.getSubjectIds()}) {
+                    if (!setIndexes.containsKey(ids)) {
+                        setIndexes.put(ids, sets.size());
+                        sets.add(ids);
+                        setValueCount += ids.size();
+                    }
+                }
+                if (lesson.getActivityType() != null && !activityTypeIndexes.containsKey(lesson.getActivityType())) {
+                    byte[] bytes = lesson.getActivityType().getBytes(StandardCharsets.UTF_8);
+                    if (bytes.length > 0xFFFF) {
+                        throw new IOException("Activity type is too long");
+                    }
+                    activityTypeIndexes.put(lesson.getActivityType(), activityTypes.size());
+                    activityTypes.add(bytes);
+                    activityTypesSize += 2 + bytes.length;
+                }
+            }
+            if (activityTypes.size() > 0xFFFF) {
+                throw new IOException("Too many different activity types");
+            }
+
+            long size = HEADER_SIZE;
+            daysOffset = (int) size;
+            size += (long) dayCount * DAY_SIZE;
+            lessonsOffset = (int) Math.min(size, Integer.MAX_VALUE);
+            size += (long) lessons.size() * LESSON_SIZE;
+            setOffsetsOffset = (int) Math.min(size, Integer.MAX_VALUE);
+            size += (sets.size() + 1L) * 4;
+            setValuesOffset = (int) Math.min(size, Integer.MAX_VALUE);
+            size += setValueCount * 4;
+            activityTypesOffset = (int) Math.min(size, Integer.MAX_VALUE);
+            size += activityTypesSize;
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException("The timetable is too big for an archive");
+            }
+            this.size = (int) size;
+        }
+
+        private void writeTo(DataOutputStream output) throws IOException {
+            output.writeInt(MAGIC);
+            output.writeShort(VERSION);
+            output.writeShort(0);
+            output.writeInt(lessons.size());
+            output.writeInt(dayCount);
+            output.writeInt(sets.size());
+            output.writeInt(activityTypes.size());
+            output.writeInt(daysOffset);
+            output.writeInt(lessonsOffset);
+            output.writeInt(setOffsetsOffset);
+            output.writeInt(setValuesOffset);
+            output.writeInt(activityTypesOffset);
+            output.write(new byte[HEADER_SIZE - 44]);
+
+            long previousDay = Long.MIN_VALUE;
+            for (int i = 0; i < lessons.size(); i++) {
+                long epochDay = lessons.get(i).getDate().toEpochDay();
+                if (epochDay != previousDay) {
+                    previousDay = epochDay;
+                    output.writeInt((int) epochDay);
+                    output.writeInt(i);
+                }
+            }
+
+            for (Timetable.Lesson lesson : lessons) {
+                output.writeInt((int) lesson.getDate().toEpochDay());
+                output.writeShort(lesson.getStartTime().toSecondOfDay() / 60);
+                output.writeShort(lesson.getEndTime().toSecondOfDay() / 60);
+                output.writeInt(setIndexes.get(lesson.getKlassenIds()));
+                output.writeInt(setIndexes.get(lesson.getTeacherIds()));
+                output.writeInt(setIndexes.get(lesson.getRoomIds()));
+                output.writeInt(setIndexes.get(lesson.getSubjectIds()));
+                output.writeShort(lesson.getCode() == null ? 0 : lesson.getCode().ordinal() + 1);
+                output.writeShort(lesson.getActivityType() == null ? 0 : activityTypeIndexes.get(lesson.getActivityType()));
+            }
+
+            int setOffset = 0;
+            for (IntSet ids : sets) {
+                output.writeInt(setOffset);
+                setOffset += ids.size();
+            }
+            output.writeInt(setOffset);
+            for (IntSet ids : sets) {
+                for (int i = 0; i < ids.size(); i++) {
+                    output.writeInt(ids.get(i));
+                }
+            }
+
+            for (byte[] activityType : activityTypes) {
+                output.writeShort(activityType.length);
+                output.write(activityType);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,532 @@
+package org.bytedream.untis4j;
+
+import org.bytedream.untis4j.responseObjects.Timetable;
+import org.bytedream.untis4j.responseObjects.TimetableDiff;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Polls the timetables of a set of elements periodically and notifies listeners about changed lessons.
+ *
+ * <p>Every poll first requests the latest import time, which is cheap. The timetables are only requested if the import time changed since the last poll (or couldn't be requested).
+ * The lessons of the next {@link TimetableWatcher#setNearTermDays(int) near-term days} of all watches are requested first, the later days afterwards.
+ * The requests of one poll are spread over the first half of the interval, so that many watches don't cause a burst of requests.
+ * Changes are detected with {@link TimetableDiff} and sent to the listeners as typed {@link ChangeEvent}s. The first timetable of a day is only remembered, it doesn't cause any events</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class TimetableWatcher {
+
+    private final Session session;
+    private final ScheduledExecutorService scheduler;
+    private final Duration interval;
+
+    private final List<Watch> watches = new CopyOnWriteArrayList<>();
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    private volatile int nearTermDays = 7;
+    private volatile RequestLimiter.Priority priority = RequestLimiter.Priority.LOW;
+    private volatile long latestImportTime = -1;
+    private ScheduledFuture<?> poller = null;
+
+    /**
+     * Initialize the {@link TimetableWatcher} class
+     *
+     * @param session session which is used to request the timetables
+     * @param scheduler executor on which the polls and requests are executed
+     * @param interval time between two polls
+     *
+     * @since 1.1
+     */
+    public TimetableWatcher(Session session, ScheduledExecutorService scheduler, Duration interval) {
+        if (interval.isNegative() || interval.isZero()) {
+            throw new IllegalArgumentException("The interval must be positive, but was " + interval);
+        }
+        this.session = session;
+        this.scheduler = scheduler;
+        this.interval = interval;
+    }
+
+    /**
+     * Watches the timetable of an element for a fixed time period
+     *
+     * @param elementType type of the element
+     * @param id id of the element
+     * @param start the beginning of the time period
+     * @param end the end of the time period
+     * @return the {@link Watch}
+     *
+     * @since 1.1
+     */
+    public Watch watch(UntisUtils.ElementType elementType, int id, LocalDate start, LocalDate end) {
+        Watch watch = new Watch(elementType, id, new DateRange(start, end), 0);
+        watches.add(watch);
+        return watch;
+    }
+
+    /**
+     * Watches the timetable of an element for a time period which starts today and moves with the current date
+     *
+     * @param elementType type of the element
+     * @param id id of the element
+     * @param days number of days which are watched, including today
+     * @return the {@link Watch}
+     *
+     * @since 1.1
+     */
+    public Watch watch(UntisUtils.ElementType elementType, int id, int days) {
+        if (days < 1) {
+            throw new IllegalArgumentException("At least one day must be watched, but was " + days);
+        }
+        Watch watch = new Watch(elementType, id, null, days);
+        watches.add(watch);
+        return watch;
+    }
+
+    /**
+     * Returns all active watches
+     *
+     * @return all active watches
+     *
+     * @since 1.1
+     */
+    public List<Watch> getWatches() {
+        return new ArrayList<>(watches);
+    }
+
+    /**
+     * Adds a listener which gets notified about all changes
+     *
+     * @param listener listener to add
+     *
+     * @since 1.1
+     */
+    public void addListener(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    /**
+     * Removes a listener
+     *
+     * @param listener listener to remove
+     *
+     * @since 1.1
+     */
+    public void removeListener(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Returns the number of days (starting today) which are requested before all other days
+     *
+     * @return the number of near-term days
+     *
+     * @since 1.1
+     */
+    public int getNearTermDays() {
+        return nearTermDays;
+    }
+
+    /**
+     * Sets the number of days (starting today) which are requested before all other days. Default is 7
+     *
+     * @param nearTermDays the number of near-term days
+     *
+     * @since 1.1
+     */
+    public void setNearTermDays(int nearTermDays) {
+        this.nearTermDays = nearTermDays;
+    }
+
+    /**
+     * Returns the priority of the polling requests
+     *
+     * @return the priority
+     *
+     * @since 1.1
+     */
+    public RequestLimiter.Priority getPriority() {
+        return priority;
+    }
+
+    /**
+     * Sets the priority of the polling requests. Default is {@link RequestLimiter.Priority#LOW}, so polling doesn't delay interactive requests of the session
+     *
+     * @param priority the priority
+     *
+     * @see Session#withPriority(RequestLimiter.Priority, Session.Request)
+     * @since 1.1
+     */
+    public void setPriority(RequestLimiter.Priority priority) {
+        this.priority = priority;
+    }
+
+    /**
+     * Starts polling. The first poll is executed immediately
+     *
+     * @since 1.1
+     */
+    public synchronized void start() {
+        if (poller == null) {
+            poller = scheduler.scheduleWithFixedDelay(this::poll, 0, interval.toMillis(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    /**
+     * Stops polling. Requests of the current poll which were already scheduled are still executed
+     *
+     * @since 1.1
+     */
+    public synchronized void stop() {
+        if (poller != null) {
+            poller.cancel(false);
+            poller = null;
+        }
+    }
+
+    /**
+     * Polls once: checks the latest import time and schedules the timetable requests if it changed
+     *
+     * @since 1.1
+     */
+    public void poll() {
+        boolean changed = true;
+        try {
+            long importTime = session.withPriority(priority, session::getLatestImportTime).getLatestImportTime();
+            changed = importTime != latestImportTime;
+            latestImportTime = importTime;
+        } catch (IOException e) {
+            notifyError(e);
+        }
+
+        LocalDate today = LocalDate.now();
+        List<Runnable> nearTerm = new ArrayList<>();
+        List<Runnable> later = new ArrayList<>();
+        for (Watch watch : watches) {
+            if (!changed && !watch.stale && watch.isUpToDate(today)) {
+                continue;
+            }
+            watch.stale = false;
+
+            DateRange range = watch.getRange(today);
+            watch.forgetBefore(range.getStart());
+
+            LocalDate nearTermEnd = today.plusDays(nearTermDays - 1);
+            if (range.getStart().isAfter(nearTermEnd)) {
+                later.add(() -> update(watch, range));
+            } else if (!range.getEnd().isAfter(nearTermEnd)) {
+                nearTerm.add(() -> update(watch, range));
+            } else {
+                nearTerm.add(() -> update(watch, new DateRange(range.getStart(), nearTermEnd)));
+                later.add(() -> update(watch, new DateRange(nearTermEnd.plusDays(1), range.getEnd())));
+            }
+        }
+
+        List<Runnable> updates = new ArrayList<>(nearTerm);
+        updates.addAll(later);
+        long spread = interval.toMillis() / 2;
+        for (int i = 0; i < updates.size(); i++) {
+            scheduler.schedule(updates.get(i), spread * i / updates.size(), TimeUnit.MILLISECONDS);
+        }
+    }
+
+    private void update(Watch watch, DateRange range) {
+        if (watch.cancelled) {
+            return;
+        }
+
+        Timetable timetable;
+        try {
+            timetable = session.withPriority(priority, () -> session.getTimetable(range.getStart(), range.getEnd(), watch.elementType, watch.id));
+        } catch (IOException e) {
+            // the import time is already remembered, so the watch must be requested again at the next poll even if the import time doesn't change
+            watch.stale = true;
+            notifyError(e);
+            return;
+        }
+
+        List<ChangeEvent> events = watch.update(range, timetable);
+        for (ChangeEvent event : events) {
+            for (ChangeListener listener : listeners) {
+                listener.onChange(event);
+            }
+        }
+    }
+
+    private void notifyError(IOException e) {
+        for (ChangeListener listener : listeners) {
+            listener.onError(e);
+        }
+    }
+
+    /**
+     * Types of changes
+     *
+     * @since 1.1
+     */
+    public enum ChangeType {
+        ADDED,
+        REMOVED,
+        CANCELLED,
+        IRREGULAR,
+        REGULAR,
+        ROOM_CHANGED,
+        TEACHER_CHANGED,
+        TIME_CHANGED,
+        ACTIVITY_TYPE_CHANGED
+    }
+
+    /**
+     * Listener which gets notified about changed lessons
+     *
+     * @since 1.1
+     */
+    @FunctionalInterface
+    public interface ChangeListener {
+
+        /**
+         * Is called for every change. A changed lesson causes one event for every type of change
+         *
+         * @param event the change
+         *
+         * @since 1.1
+         */
+        void onChange(ChangeEvent event);
+
+        /**
+         * Is called if a request failed. The failed request is repeated at the next poll
+         *
+         * @param e the exception
+         *
+         * @since 1.1
+         */
+        default void onError(IOException e) {
+        }
+    }
+
+    /**
+     * Class to get information about a change
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public static class ChangeEvent {
+
+        private final ChangeType type;
+        private final Watch watch;
+        private final Timetable.Lesson oldLesson;
+        private final Timetable.Lesson newLesson;
+
+        private ChangeEvent(ChangeType type, Watch watch, Timetable.Lesson oldLesson, Timetable.Lesson newLesson) {
+            this.type = type;
+            this.watch = watch;
+            this.oldLesson = oldLesson;
+            this.newLesson = newLesson;
+        }
+
+        /**
+         * Returns the type of the change
+         *
+         * @return the type of the change
+         *
+         * @since 1.1
+         */
+        public ChangeType getType() {
+            return type;
+        }
+
+        /**
+         * Returns the watch which detected the change
+         *
+         * @return the watch which detected the change
+         *
+         * @since 1.1
+         */
+        public Watch getWatch() {
+            return watch;
+        }
+
+        /**
+         * Returns the lesson before the change
+         *
+         * @return the lesson before the change, {@code null} if the lesson was added
+         *
+         * @since 1.1
+         */
+        public Timetable.Lesson getOldLesson() {
+            return oldLesson;
+        }
+
+        /**
+         * Returns the lesson after the change
+         *
+         * @return the lesson after the change, {@code null} if the lesson was removed
+         *
+         * @since 1.1
+         */
+        public Timetable.Lesson getNewLesson() {
+            return newLesson;
+        }
+
+        /**
+         * Returns the lesson after the change, or before it if the lesson was removed
+         *
+         * @return the lesson
+         *
+         * @since 1.1
+         */
+        public Timetable.Lesson getLesson() {
+            return newLesson != null ? newLesson : oldLesson;
+        }
+
+        @Override
+        public String toString() {
+            return type + " " + getLesson();
+        }
+    }
+
+    /**
+     * Class to get information about a watched element, which keeps the last known timetable of it
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public class Watch {
+
+        private final UntisUtils.ElementType elementType;
+        private final int id;
+        private final DateRange range;
+        private final int days;
+
+        private volatile boolean cancelled = false;
+        private volatile boolean stale = false;
+        private Timetable timetable = new Timetable();
+        private LocalDate knownFrom = null;
+        private LocalDate knownUntil = null;
+
+        private Watch(UntisUtils.ElementType elementType, int id, DateRange range, int days) {
+            this.elementType = elementType;
+            this.id = id;
+            this.range = range;
+            this.days = days;
+        }
+
+        /**
+         * Returns the type of the watched element
+         *
+         * @return the type of the watched element
+         *
+         * @since 1.1
+         */
+        public UntisUtils.ElementType getElementType() {
+            return elementType;
+        }
+
+        /**
+         * Returns the id of the watched element
+         *
+         * @return the id of the watched element
+         *
+         * @since 1.1
+         */
+        public int getId() {
+            return id;
+        }
+
+        /**
+         * Returns the last known timetable of the element
+         *
+         * @return copy of the last known timetable
+         *
+         * @since 1.1
+         */
+        public synchronized Timetable getTimetable() {
+            Timetable copy = new Timetable();
+            copy.addAll(timetable);
+            return copy;
+        }
+
+        /**
+         * Stops watching the element
+         *
+         * @since 1.1
+         */
+        public void cancel() {
+            cancelled = true;
+            watches.remove(this);
+        }
+
+        private DateRange getRange(LocalDate today) {
+            return range != null ? range : new DateRange(today, today.plusDays(days - 1));
+        }
+
+        private synchronized boolean isUpToDate(LocalDate today) {
+            DateRange current = getRange(today);
+            return knownUntil != null && !current.getEnd().isAfter(knownUntil);
+        }
+
+        private synchronized void forgetBefore(LocalDate start) {
+            timetable.removeIf(lesson -> lesson.getDate().isBefore(start));
+        }
+
+        private synchronized List<ChangeEvent> update(DateRange updated, Timetable newTimetable) {
+            // only days which were requested before are compared, the lessons of other days are the first known state
+            LocalDate compareFrom = knownFrom == null || updated.getStart().isAfter(knownFrom) ? updated.getStart() : knownFrom;
+            LocalDate compareUntil = knownUntil == null || updated.getEnd().isBefore(knownUntil) ? updated.getEnd() : knownUntil;
+
+            List<ChangeEvent> events = new ArrayList<>();
+            if (knownUntil != null && !compareFrom.isAfter(compareUntil)) {
+                TimetableDiff diff = TimetableDiff.compare(timetable.searchByDateRange(compareFrom, compareUntil), newTimetable.searchByDateRange(compareFrom, compareUntil));
+
+                for (Timetable.Lesson lesson : diff.getRemoved()) {
+                    events.add(new ChangeEvent(ChangeType.REMOVED, this, lesson, null));
+                }
+                for (Timetable.Lesson lesson : diff.getAdded()) {
+                    events.add(new ChangeEvent(lesson.getCode() == UntisUtils.LessonCode.CANCELLED ? ChangeType.CANCELLED : ChangeType.ADDED, this, null, lesson));
+                }
+                for (TimetableDiff.LessonChange change : diff.getChanged()) {
+                    if (change.hasChanged(TimetableDiff.Field.CODE)) {
+                        UntisUtils.LessonCode code = change.getNewLesson().getCode();
+                        ChangeType type = code == null ? ChangeType.REGULAR : (code == UntisUtils.LessonCode.CANCELLED ? ChangeType.CANCELLED : ChangeType.IRREGULAR);
+                        events.add(new ChangeEvent(type, this, change.getOldLesson(), change.getNewLesson()));
+                    }
+                    if (change.hasChanged(TimetableDiff.Field.ROOMS)) {
+                        events.add(new ChangeEvent(ChangeType.ROOM_CHANGED, this, change.getOldLesson(), change.getNewLesson()));
+                    }
+                    if (change.hasChanged(TimetableDiff.Field.TEACHERS)) {
+                        events.add(new ChangeEvent(ChangeType.TEACHER_CHANGED, this, change.getOldLesson(), change.getNewLesson()));
+                    }
+                    if (change.hasChanged(TimetableDiff.Field.START_TIME) || change.hasChanged(TimetableDiff.Field.END_TIME)) {
+                        events.add(new ChangeEvent(ChangeType.TIME_CHANGED, this, change.getOldLesson(), change.getNewLesson()));
+                    }
+                    if (change.hasChanged(TimetableDiff.Field.ACTIVITY_TYPE)) {
+                        events.add(new ChangeEvent(ChangeType.ACTIVITY_TYPE_CHANGED, this, change.getOldLesson(), change.getNewLesson()));
+                    }
+                }
+            }
+
+            timetable.removeIf(lesson -> updated.contains(lesson.getDate()));
+            timetable.addAll(newTimetable);
+            timetable.sortByDateAndTime();
+
+            if (knownFrom == null || updated.getStart().isBefore(knownFrom)) {
+                knownFrom = updated.getStart();
+            }
+            if (knownUntil == null || updated.getEnd().isAfter(knownUntil)) {
+                knownUntil = updated.getEnd();
+            }
+
+            return events;
+        }
+    }
+
+}
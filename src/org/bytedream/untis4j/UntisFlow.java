@@ -0,0 +1,105 @@
+package org.bytedream.untis4j;
+
+/**
+ * Interfaces for demand driven publishing of results.
+ *
+ * <p>The interfaces have the same methods and contracts as {@code java.util.concurrent.Flow} (and Reactive Streams), which isn't available on Java 8.
+ * On newer Java versions they can be bridged with a small delegating adapter, e.g. a {@code UntisFlow.Subscriber} whose methods forward to a {@code java.util.concurrent.Flow.Subscriber}
+ * and which wraps the {@link Subscription} in a {@code Flow.Subscription}</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class UntisFlow {
+
+    private UntisFlow() {
+    }
+
+    /**
+     * Producer of elements which are received by {@link Subscriber}s
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    @FunctionalInterface
+    public interface Publisher<T> {
+
+        /**
+         * Adds the given subscriber. The publisher calls {@link Subscriber#onSubscribe(Subscription)} and then only sends as many elements as requested
+         *
+         * @param subscriber the subscriber
+         *
+         * @since 1.1
+         */
+        void subscribe(Subscriber<? super T> subscriber);
+    }
+
+    /**
+     * Receiver of elements
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public interface Subscriber<T> {
+
+        /**
+         * Called before any other method, with the subscription to request elements with
+         *
+         * @param subscription the subscription
+         *
+         * @since 1.1
+         */
+        void onSubscribe(Subscription subscription);
+
+        /**
+         * Called with the next element. Is never called more often than requested
+         *
+         * @param item the element
+         *
+         * @since 1.1
+         */
+        void onNext(T item);
+
+        /**
+         * Called if an error occurred. No other method is called afterwards
+         *
+         * @param throwable the error
+         *
+         * @since 1.1
+         */
+        void onError(Throwable throwable);
+
+        /**
+         * Called after the last element. No other method is called afterwards
+         *
+         * @since 1.1
+         */
+        void onComplete();
+    }
+
+    /**
+     * Link between a {@link Publisher} and a {@link Subscriber}
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public interface Subscription {
+
+        /**
+         * Requests {@code n} more elements
+         *
+         * @param n number of elements, must be positive
+         *
+         * @since 1.1
+         */
+        void request(long n);
+
+        /**
+         * Stops sending elements and releases all resources
+         *
+         * @since 1.1
+         */
+        void cancel();
+    }
+
+}
@@ -4,6 +4,7 @@ import org.json.JSONObject;
 
 import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
 
@@ -131,8 +132,8 @@ public class UntisUtils {
      * @since 1.0
      */
     public static HashMap<String, String> localDateToParams(LocalDate start, LocalDate end) {
-        if (start.isBefore(end)) {
-            throw new DateTimeException("The start date must end after or on the same day as the end date");
+        if (end.isBefore(start)) {
+            throw new DateTimeException("The start date must be before or on the same day as the end date");
         }
 
         return new HashMap<String, String>() {{
@@ -141,6 +142,118 @@ public class UntisUtils {
         }};
     }
 
+    /**
+     * Converts a date to the untis date format ({@code yyyyMMdd}) without formatting it as string
+     *
+     * @param date date to convert
+     * @return the date in the untis date format
+     *
+     * @since 1.1
+     */
+    public static int toUntisDate(LocalDate date) {
+        return date.getYear() * 10000 + date.getMonthValue() * 100 + date.getDayOfMonth();
+    }
+
+    /**
+     * Converts a date in the untis format ({@code yyyyMMdd} as number) to a {@link LocalDate} without parsing a string
+     *
+     * @param untisDate date in the untis format
+     * @return the date
+     * @throws DateTimeException if the number is no valid date
+     *
+     * @since 1.1
+     */
+    public static LocalDate fromUntisDate(int untisDate) {
+        return LocalDate.of(untisDate / 10000, untisDate / 100 % 100, untisDate % 100);
+    }
+
+    /**
+     * Converts a time in the untis format ({@code Hmm} or {@code HHmm} as number) to a {@link LocalTime} without parsing a string
+     *
+     * @param untisTime time in the untis format
+     * @return the time
+     * @throws DateTimeException if the number is no valid time
+     *
+     * @since 1.1
+     */
+    public static LocalTime fromUntisTime(int untisTime) {
+        return LocalTime.of(untisTime / 100, untisTime % 100);
+    }
+
+    /**
+     * Converts a date in the untis format ({@code yyyyMMdd} as number) to the epoch day without creating a {@link LocalDate}.
+     * The date isn't validated
+     *
+     * @param untisDate date in the untis format
+     * @return the epoch day, like {@link LocalDate#toEpochDay()}
+     *
+     * @since 1.1
+     */
+    public static int untisDateToEpochDay(int untisDate) {
+        int year = untisDate / 10000;
+        int month = untisDate / 100 % 100;
+        int day = untisDate % 100;
+
+        // days since 0000-03-01 of the proleptic gregorian calendar, with march as first month so the leap day is the last day of the year
+        int shiftedYear = month <= 2 ? year - 1 : year;
+        int era = Math.floorDiv(shiftedYear, 400);
+        int yearOfEra = shiftedYear - era * 400;
+        int dayOfYear = (153 * (month + (month > 2 ? -3 : 9)) + 2) / 5 + day - 1;
+        int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+        return era * 146097 + dayOfEra - 719468;
+    }
+
+    /**
+     * Converts a time in the untis format ({@code Hmm} or {@code HHmm} as number) to the minute of the day
+     *
+     * @param untisTime time in the untis format
+     * @return the minute of the day
+     *
+     * @since 1.1
+     */
+    public static int untisTimeToMinute(int untisTime) {
+        return untisTime / 100 * 60 + untisTime % 100;
+    }
+
+    /**
+     * Checks if the decimal representation of {@code value} contains the decimal representation of {@code digits},
+     * like {@code String.valueOf(value).contains(String.valueOf(digits))} but without creating strings
+     *
+     * @param value value to check
+     * @param digits digits to search in {@code value}
+     * @return {@code true} if {@code value} contains {@code digits}, {@code false} if not
+     *
+     * @since 1.1
+     */
+    public static boolean containsDigits(int value, int digits) {
+        if (value == digits) {
+            return true;
+        } else if (digits < 0) {
+            // the minus sign can only be at the beginning, so the digits must be a prefix of the value
+            if (value >= 0) {
+                return false;
+            }
+            long rest = -(long) value;
+            long search = -(long) digits;
+            while (rest > search) {
+                rest /= 10;
+            }
+            return rest == search;
+        }
+
+        long rest = Math.abs((long) value);
+        long window = 10;
+        while (window <= digits) {
+            window *= 10;
+        }
+        for (; rest >= window / 10; rest /= 10) {
+            if (rest % window == digits) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     /**
      * Checks if two lists have a same item
      *
@@ -0,0 +1,403 @@
+package org.bytedream.untis4j.responseObjects;
+
+import org.bytedream.untis4j.IntSet;
+import org.bytedream.untis4j.UntisUtils;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.RandomAccess;
+
+/**
+ * Read only struct-of-arrays representation of a {@link Timetable}.
+ *
+ * <p>Every lesson field is stored in its own primitive array (dates as epoch days, times as minute of the day, ids packed into one {@code int[]} with offsets, dictionary encoded activity types),
+ * so scanning a big timetable with the primitive getters (e.g. {@link ColumnarTimetable#getEpochDay(int)}) is cache friendly and allocates nothing.
+ * {@link ColumnarTimetable#get(int)} creates a {@link Timetable.Lesson} view on demand</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class ColumnarTimetable extends AbstractList<Timetable.Lesson> implements RandomAccess {
+
+    private static final UntisUtils.LessonCode[] LESSON_CODES = UntisUtils.LessonCode.values();
+    private static final int ELEMENT_TYPES = 4;
+
+    private final int size;
+    private final int[] dates;
+    private final short[] startMinutes;
+    private final short[] endMinutes;
+    private final int[] idOffsets;
+    private final int[] ids;
+    private final byte[] codes;
+    private final short[] activityTypes;
+    private final String[] activityTypeDictionary;
+
+    private ColumnarTimetable(Builder builder) {
+        size = builder.size;
+        dates = Arrays.copyOf(builder.dates, size);
+        startMinutes = Arrays.copyOf(builder.startMinutes, size);
+        endMinutes = Arrays.copyOf(builder.endMinutes, size);
+        idOffsets = Arrays.copyOf(builder.idOffsets, size * ELEMENT_TYPES + 1);
+        ids = Arrays.copyOf(builder.ids, builder.idOffsets[size * ELEMENT_TYPES]);
+        codes = Arrays.copyOf(builder.codes, size);
+        activityTypes = Arrays.copyOf(builder.activityTypes, size);
+        activityTypeDictionary = builder.activityTypeDictionary.clone();
+    }
+
+    /**
+     * Creates a {@link ColumnarTimetable} which contains all given lessons
+     *
+     * @param lessons lessons to store
+     * @return the {@link ColumnarTimetable}
+     *
+     * @since 1.1
+     */
+    public static ColumnarTimetable of(Collection<Timetable.Lesson> lessons) {
+        Builder builder = new Builder(lessons.size());
+
+        for (Timetable.Lesson lesson : lessons) {
+            builder.add(lesson);
+        }
+
+        return builder.build();
+    }
+
+    /**
+     * Returns the date of a lesson as epoch day
+     *
+     * @param index index of the lesson
+     * @return the date of the lesson as epoch day
+     *
+     * @see LocalDate#toEpochDay()
+     *
+     * @since 1.1
+     */
+    public int getEpochDay(int index) {
+        checkIndex(index);
+        return dates[index];
+    }
+
+    /**
+     * Returns the start time of a lesson as minute of the day
+     *
+     * @param index index of the lesson
+     * @return the start time of the lesson as minute of the day
+     *
+     * @since 1.1
+     */
+    public int getStartMinute(int index) {
+        checkIndex(index);
+        return startMinutes[index];
+    }
+
+    /**
+     * Returns the end time of a lesson as minute of the day
+     *
+     * @param index index of the lesson
+     * @return the end time of the lesson as minute of the day
+     *
+     * @since 1.1
+     */
+    public int getEndMinute(int index) {
+        checkIndex(index);
+        return endMinutes[index];
+    }
+
+    /**
+     * Returns the code of a lesson
+     *
+     * @param index index of the lesson
+     * @return the code of the lesson, {@code null} if the lesson has no code
+     *
+     * @since 1.1
+     */
+    public UntisUtils.LessonCode getCode(int index) {
+        checkIndex(index);
+        return codes[index] == 0 ? null : LESSON_CODES[codes[index] - 1];
+    }
+
+    /**
+     * Returns the dictionary id of the activity type of a lesson
+     *
+     * @param index index of the lesson
+     * @return the dictionary id of the activity type of the lesson
+     *
+     * @see ColumnarTimetable#getActivityTypeDictionary()
+     *
+     * @since 1.1
+     */
+    public int getActivityTypeId(int index) {
+        checkIndex(index);
+        return activityTypes[index];
+    }
+
+    /**
+     * Returns the activity type of a lesson
+     *
+     * @param index index of the lesson
+     * @return the activity type of the lesson
+     *
+     * @since 1.1
+     */
+    public String getActivityType(int index) {
+        return activityTypeDictionary[getActivityTypeId(index)];
+    }
+
+    /**
+     * Returns all activity types, indexed by their dictionary id
+     *
+     * @return all activity types
+     *
+     * @since 1.1
+     */
+    public String[] getActivityTypeDictionary() {
+        return activityTypeDictionary.clone();
+    }
+
+    /**
+     * Returns the number of ids of a lesson for the given element type
+     *
+     * @param index index of the lesson
+     * @param elementType type of the ids
+     * @return the number of ids
+     *
+     * @since 1.1
+     */
+    public int getIdCount(int index, UntisUtils.ElementType elementType) {
+        int offset = idOffset(index, elementType);
+        return idOffsets[offset + 1] - idOffsets[offset];
+    }
+
+    /**
+     * Returns an id of a lesson for the given element type. The ids of a lesson are sorted ascending
+     *
+     * @param index index of the lesson
+     * @param elementType type of the id
+     * @param idIndex index of the id, must be lower than {@link ColumnarTimetable#getIdCount(int, UntisUtils.ElementType)}
+     * @return the id
+     *
+     * @since 1.1
+     */
+    public int getId(int index, UntisUtils.ElementType elementType, int idIndex) {
+        int offset = idOffset(index, elementType);
+        if (idIndex < 0 || idIndex >= idOffsets[offset + 1] - idOffsets[offset]) {
+            throw new IndexOutOfBoundsException("Id index: " + idIndex);
+        }
+        return ids[idOffsets[offset] + idIndex];
+    }
+
+    /**
+     * Checks if a lesson has the given id for the given element type
+     *
+     * @param index index of the lesson
+     * @param elementType type of the id
+     * @param id id to check
+     * @return {@code true} if the lesson has the id
+     *
+     * @since 1.1
+     */
+    public boolean containsId(int index, UntisUtils.ElementType elementType, int id) {
+        int offset = idOffset(index, elementType);
+        for (int i = idOffsets[offset]; i < idOffsets[offset + 1]; i++) {
+            if (ids[i] == id) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns a {@link Timetable.Lesson} view of a lesson. Every call creates a new view
+     *
+     * @param index index of the lesson
+     * @return the lesson
+     *
+     * @since 1.1
+     */
+    @Override
+    public Timetable.Lesson get(int index) {
+        checkIndex(index);
+        return new Timetable.Lesson(LocalDate.ofEpochDay(dates[index]),
+                LocalTime.of(startMinutes[index] / 60, startMinutes[index] % 60),
+                LocalTime.of(endMinutes[index] / 60, endMinutes[index] % 60),
+                idSet(index, UntisUtils.ElementType.KLASSE),
+                idSet(index, UntisUtils.ElementType.TEACHER),
+                idSet(index, UntisUtils.ElementType.ROOM),
+                idSet(index, UntisUtils.ElementType.SUBJECT),
+                getCode(index),
+                getActivityType(index));
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Returns a {@link Timetable} which contains all lessons
+     *
+     * @return the {@link Timetable}
+     *
+     * @since 1.1
+     */
+    public Timetable toTimetable() {
+        Timetable timetable = new Timetable();
+        timetable.ensureCapacity(size);
+        timetable.addAll(this);
+        return timetable;
+    }
+
+    private IntSet idSet(int index, UntisUtils.ElementType elementType) {
+        int offset = idOffset(index, elementType);
+        return IntSet.ofRange(ids, idOffsets[offset], idOffsets[offset + 1]);
+    }
+
+    private int idOffset(int index, UntisUtils.ElementType elementType) {
+        checkIndex(index);
+        return index * ELEMENT_TYPES + elementTypeIndex(elementType);
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + size);
+        }
+    }
+
+    static int elementTypeIndex(UntisUtils.ElementType elementType) {
+        switch (elementType) {
+            case KLASSE:
+                return 0;
+            case TEACHER:
+                return 1;
+            case SUBJECT:
+                return 2;
+            case ROOM:
+                return 3;
+            default:
+                throw new IllegalArgumentException("Lessons have no ids of type " + elementType);
+        }
+    }
+
+    /**
+     * Class to build a {@link ColumnarTimetable} lesson by lesson
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public static class Builder {
+
+        private int size = 0;
+        private int[] dates;
+        private short[] startMinutes;
+        private short[] endMinutes;
+        private int[] idOffsets;
+        private int[] ids;
+        private byte[] codes;
+        private short[] activityTypes;
+        private String[] activityTypeDictionary = new String[0];
+        private final HashMap<String, Short> activityTypeIds = new HashMap<>();
+
+        /**
+         * Initialize the {@link Builder} class
+         *
+         * @since 1.1
+         */
+        public Builder() {
+            this(16);
+        }
+
+        /**
+         * Initialize the {@link Builder} class
+         *
+         * @param expectedSize expected number of lessons
+         *
+         * @since 1.1
+         */
+        public Builder(int expectedSize) {
+            int capacity = Math.max(expectedSize, 1);
+            dates = new int[capacity];
+            startMinutes = new short[capacity];
+            endMinutes = new short[capacity];
+            idOffsets = new int[capacity * ELEMENT_TYPES + 1];
+            ids = new int[capacity * ELEMENT_TYPES];
+            codes = new byte[capacity];
+            activityTypes = new short[capacity];
+        }
+
+        /**
+         * Adds a lesson
+         *
+         * @param lesson lesson to add
+         * @return this builder
+         *
+         * @since 1.1
+         */
+        public Builder add(Timetable.Lesson lesson) {
+            if (size == dates.length) {
+                int capacity = size * 2;
+                dates = Arrays.copyOf(dates, capacity);
+                startMinutes = Arrays.copyOf(startMinutes, capacity);
+                endMinutes = Arrays.copyOf(endMinutes, capacity);
+                idOffsets = Arrays.copyOf(idOffsets, capacity * ELEMENT_TYPES + 1);
+                codes = Arrays.copyOf(codes, capacity);
+                activityTypes = Arrays.copyOf(activityTypes, capacity);
+            }
+
+            dates[size] = (int) lesson.getDate().toEpochDay();
+            startMinutes[size] = (short) (lesson.getStartTime().toSecondOfDay() / 60);
+            endMinutes[size] = (short) (lesson.getEndTime().toSecondOfDay() / 60);
+            codes[size] = (byte) (lesson.getCode() == null ? 0 : lesson.getCode().ordinal() + 1);
+            activityTypes[size] = activityTypeId(lesson.getActivityType());
+
+            int offset = size * ELEMENT_TYPES;
+            addIds(offset, lesson.getKlassenIds());
+            addIds(offset + 1, lesson.getTeacherIds());
+            addIds(offset + 2, lesson.getSubjectIds());
+            addIds(offset + 3, lesson.getRoomIds());
+
+            size++;
+            return this;
+        }
+
+        /**
+         * Builds the {@link ColumnarTimetable}. The builder can still be used afterwards
+         *
+         * @return the {@link ColumnarTimetable}
+         *
+         * @since 1.1
+         */
+        public ColumnarTimetable build() {
+            return new ColumnarTimetable(this);
+        }
+
+        private void addIds(int offset, IntSet values) {
+            int start = idOffsets[offset];
+            if (start + values.size() > ids.length) {
+                ids = Arrays.copyOf(ids, Math.max(ids.length * 2, start + values.size()));
+            }
+            for (int i = 0; i < values.size(); i++) {
+                ids[start + i] = values.get(i);
+            }
+            idOffsets[offset + 1] = start + values.size();
+        }
+
+        private short activityTypeId(String activityType) {
+            Short id = activityTypeIds.get(activityType);
+            if (id == null) {
+                if (activityTypeDictionary.length == Short.MAX_VALUE) {
+                    throw new IllegalStateException("Too many different activity types");
+                }
+                id = (short) activityTypeDictionary.length;
+                activityTypeDictionary = Arrays.copyOf(activityTypeDictionary, id + 1);
+                activityTypeDictionary[id] = activityType;
+                activityTypeIds.put(activityType, id);
+            }
+            return id;
+        }
+    }
+
+}
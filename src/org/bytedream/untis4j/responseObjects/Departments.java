@@ -12,6 +12,18 @@ import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.*;
  */
 public class Departments extends NILResponseList<Departments.DepartmentObject> {
 
+    /**
+     * Creates a new, empty {@link Departments} list, which is used for the results of the search methods
+     *
+     * @return the new list
+     *
+     * @since 1.1
+     */
+    @Override
+    protected Departments newList() {
+        return new Departments();
+    }
+
     /**
      * Class to get information about a department
      *
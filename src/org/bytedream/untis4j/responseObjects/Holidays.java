@@ -1,12 +1,15 @@
 package org.bytedream.untis4j.responseObjects;
 
+import org.bytedream.untis4j.DateRange;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.NILResponseList;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.NILResponseObject;
 import org.json.JSONObject;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 public class Holidays extends NILResponseList<Holidays.HolidaysObject> {
 
@@ -66,6 +69,35 @@ public class Holidays extends NILResponseList<Holidays.HolidaysObject> {
         return holidays;
     }
 
+    /**
+     * Returns the periods of all holidays
+     *
+     * @return the periods of all holidays, in the order of the list
+     *
+     * @since 1.1
+     */
+    public List<DateRange> getDateRanges() {
+        List<DateRange> dateRanges = new ArrayList<>(this.size());
+
+        for (HolidaysObject holidaysObject : this) {
+            dateRanges.add(new DateRange(holidaysObject.getStartDate(), holidaysObject.getEndDate()));
+        }
+
+        return dateRanges;
+    }
+
+    /**
+     * Creates a new, empty {@link Holidays} list, which is used for the results of the search methods
+     *
+     * @return the new list
+     *
+     * @since 1.1
+     */
+    @Override
+    protected Holidays newList() {
+        return new Holidays();
+    }
+
     /**
      * Class to get information about holidays
      *
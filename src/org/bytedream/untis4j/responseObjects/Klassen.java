@@ -14,6 +14,18 @@ import java.util.HashMap;
  */
 public class Klassen extends NAILResponseList<Klassen.KlasseObject> {
 
+    /**
+     * Creates a new, empty {@link Klassen} list, which is used for the results of the search methods
+     *
+     * @return the new list
+     *
+     * @since 1.1
+     */
+    @Override
+    protected Klassen newList() {
+        return new Klassen();
+    }
+
     /**
      * Class to get information about a klasse
      *
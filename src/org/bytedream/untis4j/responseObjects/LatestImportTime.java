@@ -14,27 +14,27 @@ import java.util.HashMap;
  */
 public class LatestImportTime extends ResponseObject {
 
-    private final int latestImportTime;
+    private final long latestImportTime;
 
     /**
      * Initializes the {@link LatestImportTime} class
      *
-     * @param latestImportTime time when the last change were made
+     * @param latestImportTime time when the last change were made, in milliseconds since the epoch
      *
      * @since 1.0
      */
-    public LatestImportTime(int latestImportTime) {
+    public LatestImportTime(long latestImportTime) {
         this.latestImportTime = latestImportTime;
     }
 
     /**
      * Returns the time when the last change were made
      *
-     * @return the time when the last change were made
+     * @return the time when the last change were made, in milliseconds since the epoch
      *
      * @since 1.0
      */
-    public int getLatestImportTime() {
+    public long getLatestImportTime() {
         return latestImportTime;
     }
 
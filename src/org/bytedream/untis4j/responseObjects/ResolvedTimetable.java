@@ -0,0 +1,273 @@
+package org.bytedream.untis4j.responseObjects;
+
+import org.bytedream.untis4j.IntSet;
+import org.bytedream.untis4j.UntisUtils;
+import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.NILResponseList;
+import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.ResponseList;
+import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.NILResponseObject;
+import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.ResponseObject;
+import org.json.JSONObject;
+
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * Class to manage {@link ResolvedLesson} objects, lessons whose klassen, teacher, subject and room ids are resolved to the matching masterdata objects.
+ *
+ * <p>{@link ResolvedTimetable#resolve(Timetable, Klassen, Teachers, Subjects, Rooms)} looks up every distinct id of the timetable only once (with {@link NILResponseList#findByIds(int...)})
+ * into an array which is aligned with the sorted distinct ids, so resolving a lesson only needs binary searches in a small primitive array and even big timetables are resolved in one pass</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class ResolvedTimetable extends ResponseList<ResolvedTimetable.ResolvedLesson> {
+
+    /**
+     * Resolves the ids of all lessons in {@code timetable}. Ids which aren't in the given masterdata lists are left out
+     *
+     * @param timetable timetable to resolve
+     * @param klassen klassen to resolve the klassen ids with, may be {@code null}
+     * @param teachers teachers to resolve the teacher ids with, may be {@code null}
+     * @param subjects subjects to resolve the subject ids with, may be {@code null}
+     * @param rooms rooms to resolve the room ids with, may be {@code null}
+     * @return the resolved lessons, in the order of {@code timetable}
+     *
+     * @since 1.1
+     */
+    public static ResolvedTimetable resolve(Timetable timetable, Klassen klassen, Teachers teachers, Subjects subjects, Rooms rooms) {
+        TimetableIdIndex idIndex = timetable.getIdIndex();
+        Resolver<Klassen.KlasseObject> klassenResolver = new Resolver<>(idIndex.getIds(UntisUtils.ElementType.KLASSE), klassen);
+        Resolver<Teachers.TeacherObject> teacherResolver = new Resolver<>(idIndex.getIds(UntisUtils.ElementType.TEACHER), teachers);
+        Resolver<Subjects.SubjectObject> subjectResolver = new Resolver<>(idIndex.getIds(UntisUtils.ElementType.SUBJECT), subjects);
+        Resolver<Rooms.RoomObject> roomResolver = new Resolver<>(idIndex.getIds(UntisUtils.ElementType.ROOM), rooms);
+
+        ResolvedTimetable resolvedTimetable = new ResolvedTimetable();
+        resolvedTimetable.ensureCapacity(timetable.size());
+
+        for (Timetable.Lesson lesson : timetable) {
+            resolvedTimetable.add(new ResolvedLesson(lesson,
+                    klassenResolver.resolve(lesson.getKlassenIds()),
+                    teacherResolver.resolve(lesson.getTeacherIds()),
+                    subjectResolver.resolve(lesson.getSubjectIds()),
+                    roomResolver.resolve(lesson.getRoomIds())));
+        }
+
+        return resolvedTimetable;
+    }
+
+    /**
+     * Returns a timetable with the unresolved lessons
+     *
+     * @return the timetable with the unresolved lessons
+     *
+     * @since 1.1
+     */
+    public Timetable toTimetable() {
+        Timetable timetable = new Timetable();
+        timetable.ensureCapacity(size());
+
+        for (ResolvedLesson resolvedLesson : this) {
+            timetable.add(resolvedLesson.getLesson());
+        }
+
+        return timetable;
+    }
+
+    /**
+     * Resolves the ids of one element type with a sorted id array and the matching masterdata objects
+     */
+    private static final class Resolver<E extends NILResponseObject> {
+
+        private final int[] ids;
+        private final List<E> elements;
+
+        private Resolver(int[] ids, NILResponseList<E> list) {
+            this.ids = ids;
+            this.elements = list == null ? Collections.nCopies(ids.length, null) : list.findByIds(ids);
+        }
+
+        private List<E> resolve(IntSet lessonIds) {
+            if (lessonIds.isEmpty()) {
+                return Collections.emptyList();
+            }
+
+            List<E> list = new ArrayList<>(lessonIds.size());
+            for (int i = 0; i < lessonIds.size(); i++) {
+                E element = elements.get(Arrays.binarySearch(ids, lessonIds.get(i)));
+                if (element != null) {
+                    list.add(element);
+                }
+            }
+            return Collections.unmodifiableList(list);
+        }
+    }
+
+    /**
+     * Class to get information about a lesson with resolved klassen, teachers, subjects and rooms
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public static class ResolvedLesson extends ResponseObject {
+
+        private final Timetable.Lesson lesson;
+        private final List<Klassen.KlasseObject> klassen;
+        private final List<Teachers.TeacherObject> teachers;
+        private final List<Subjects.SubjectObject> subjects;
+        private final List<Rooms.RoomObject> rooms;
+
+        /**
+         * Initialize the {@link ResolvedLesson} class
+         *
+         * @param lesson the unresolved lesson
+         * @param klassen klassen of the lesson
+         * @param teachers teachers of the lesson
+         * @param subjects subjects of the lesson
+         * @param rooms rooms of the lesson
+         *
+         * @since 1.1
+         */
+        public ResolvedLesson(Timetable.Lesson lesson,
+                              List<Klassen.KlasseObject> klassen,
+                              List<Teachers.TeacherObject> teachers,
+                              List<Subjects.SubjectObject> subjects,
+                              List<Rooms.RoomObject> rooms) {
+            this.lesson = lesson;
+            this.klassen = klassen;
+            this.teachers = teachers;
+            this.subjects = subjects;
+            this.rooms = rooms;
+        }
+
+        /**
+         * Returns the unresolved lesson
+         *
+         * @return the unresolved lesson
+         *
+         * @since 1.1
+         */
+        public Timetable.Lesson getLesson() {
+            return lesson;
+        }
+
+        /**
+         * Returns the date of the lesson
+         *
+         * @return the date of the lesson
+         *
+         * @since 1.1
+         */
+        public LocalDate getDate() {
+            return lesson.getDate();
+        }
+
+        /**
+         * Returns the start time of the lesson
+         *
+         * @return the start time of the lesson
+         *
+         * @since 1.1
+         */
+        public LocalTime getStartTime() {
+            return lesson.getStartTime();
+        }
+
+        /**
+         * Returns the end time of the lesson
+         *
+         * @return the end time of the lesson
+         *
+         * @since 1.1
+         */
+        public LocalTime getEndTime() {
+            return lesson.getEndTime();
+        }
+
+        /**
+         * Returns the klassen of the lesson
+         *
+         * @return the klassen of the lesson
+         *
+         * @since 1.1
+         */
+        public List<Klassen.KlasseObject> getKlassen() {
+            return klassen;
+        }
+
+        /**
+         * Returns the teachers of the lesson
+         *
+         * @return the teachers of the lesson
+         *
+         * @since 1.1
+         */
+        public List<Teachers.TeacherObject> getTeachers() {
+            return teachers;
+        }
+
+        /**
+         * Returns the subjects of the lesson
+         *
+         * @return the subjects of the lesson
+         *
+         * @since 1.1
+         */
+        public List<Subjects.SubjectObject> getSubjects() {
+            return subjects;
+        }
+
+        /**
+         * Returns the rooms of the lesson
+         *
+         * @return the rooms of the lesson
+         *
+         * @since 1.1
+         */
+        public List<Rooms.RoomObject> getRooms() {
+            return rooms;
+        }
+
+        /**
+         * Returns a json parsed string with all information
+         *
+         * @return a json parsed string with all information
+         *
+         * @since 1.1
+         */
+        @Override
+        public String toString() {
+            HashMap<String, Object> resolvedLessonAsMap = new HashMap<>();
+
+            resolvedLessonAsMap.put("date", lesson.getDate().toString());
+            resolvedLessonAsMap.put("startTime", lesson.getStartTime().format(DateTimeFormatter.ofPattern("HHmm")));
+            resolvedLessonAsMap.put("endTime", lesson.getEndTime().format(DateTimeFormatter.ofPattern("HHmm")));
+            resolvedLessonAsMap.put("kl", names(klassen));
+            resolvedLessonAsMap.put("te", names(teachers));
+            resolvedLessonAsMap.put("su", names(subjects));
+            resolvedLessonAsMap.put("ro", names(rooms));
+            if (lesson.getCode() != null) {
+                resolvedLessonAsMap.put("code", lesson.getCode().getLessonCode());
+            }
+            resolvedLessonAsMap.put("activityType", lesson.getActivityType());
+
+            return new JSONObject(resolvedLessonAsMap).toString();
+        }
+
+        private static List<String> names(List<? extends NILResponseObject> elements) {
+            List<String> names = new ArrayList<>(elements.size());
+
+            for (NILResponseObject element : elements) {
+                names.add(element.getName());
+            }
+
+            return names;
+        }
+    }
+
+}
@@ -42,6 +42,18 @@ public class Rooms extends NAILResponseList<Rooms.RoomObject> {
         return rooms;
     }
 
+    /**
+     * Creates a new, empty {@link Rooms} list, which is used for the results of the search methods
+     *
+     * @return the new list
+     *
+     * @since 1.1
+     */
+    @Override
+    protected Rooms newList() {
+        return new Rooms();
+    }
+
     /**
      * Class to get information about a room
      *
@@ -1,12 +1,16 @@
 package org.bytedream.untis4j.responseObjects;
 
+import org.bytedream.untis4j.DateRange;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.ResponseList;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.ResponseObject;
+import org.bytedream.untis4j.responseObjects.baseObjects.IdIndex;
 import org.json.JSONObject;
 
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 
 /**
  * Class to manage {@link SchoolYearObject} objects
@@ -16,6 +20,8 @@ import java.util.HashMap;
  */
 public class SchoolYears extends ResponseList<SchoolYears.SchoolYearObject> {
 
+    private transient volatile IdIndex idIndex = null;
+
     /**
      * Finds a school year by its name
      *
@@ -61,7 +67,8 @@ public class SchoolYears extends ResponseList<SchoolYears.SchoolYearObject> {
      * @since 1.0
      */
     public SchoolYearObject findById(int id) {
-        return this.stream().filter(schoolYearObject -> schoolYearObject.getId() == id).findAny().orElse(null);
+        int position = getIdIndex().getPosition(id);
+        return position < 0 ? null : this.get(position);
     }
 
     /**
@@ -121,11 +128,36 @@ public class SchoolYears extends ResponseList<SchoolYears.SchoolYearObject> {
      * @since 1.0
      */
     public SchoolYears searchById(int id) {
-        SchoolYears schoolYears = new SchoolYears();
+        return select(new SchoolYears(), getIdIndex().getPositionsByDigits(id));
+    }
+
+    /**
+     * Returns the index over the ids of the school years
+     *
+     * @return the index over the ids of the school years
+     *
+     * @since 1.1
+     */
+    public IdIndex getIdIndex() {
+        idIndex = getIdIndex(idIndex, SchoolYearObject::getId);
+        return idIndex;
+    }
+
+    /**
+     * Returns the periods of all school years
+     *
+     * @return the periods of all school years, in the order of the list
+     *
+     * @since 1.1
+     */
+    public List<DateRange> getDateRanges() {
+        List<DateRange> dateRanges = new ArrayList<>(this.size());
 
-        this.stream().filter(schoolYearObject -> String.valueOf(schoolYearObject.getId()).contains(String.valueOf(id))).forEach(schoolYears::add);
+        for (SchoolYearObject schoolYearObject : this) {
+            dateRanges.add(new DateRange(schoolYearObject.getStartDate(), schoolYearObject.getEndDate()));
+        }
 
-        return schoolYears;
+        return dateRanges;
     }
 
     /**
@@ -99,6 +99,18 @@ public class Subjects extends NAILResponseList<Subjects.SubjectObject> {
     }
 
 
+    /**
+     * Creates a new, empty {@link Subjects} list, which is used for the results of the search methods
+     *
+     * @return the new list
+     *
+     * @since 1.1
+     */
+    @Override
+    protected Subjects newList() {
+        return new Subjects();
+    }
+
     /**
      * Class to get information about a subject
      *
@@ -2,6 +2,7 @@ package org.bytedream.untis4j.responseObjects;
 
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.NAILResponseList;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.NAILResponseObject;
+import org.bytedream.untis4j.responseObjects.baseObjects.TextIndex;
 import org.json.JSONObject;
 
 import java.util.HashMap;
@@ -14,6 +15,9 @@ import java.util.HashMap;
  */
 public class Teachers extends NAILResponseList<Teachers.TeacherObject> {
 
+    private transient volatile TextIndex foreNameIndex = null;
+    private transient volatile TextIndex fullNameIndex = null;
+
     /**
      * Finds a teacher by its title name
      *
@@ -77,11 +81,27 @@ public class Teachers extends NAILResponseList<Teachers.TeacherObject> {
     public Teachers searchByForeName(String foreName) {
         Teachers teachers = new Teachers();
 
-        this.stream().filter(subject -> subject.getForename().contains(foreName)).forEach(teachers::add);
+        for (int position : getForeNameIndex().searchBySubstring(foreName)) {
+            if (this.get(position).getForename().contains(foreName)) {
+                teachers.add(this.get(position));
+            }
+        }
 
         return teachers;
     }
 
+    /**
+     * Finds teachers that have a word in their fore name which starts with {@code prefix}, ignoring case and diacritics
+     *
+     * @param prefix prefix of the teachers you want to search
+     * @return {@link Teachers} with teachers that have a word in their fore name which starts with {@code prefix}
+     *
+     * @since 1.1
+     */
+    public Teachers searchByForeNamePrefix(String prefix) {
+        return select(new Teachers(), getForeNameIndex().searchByPrefix(prefix));
+    }
+
     /**
      * Finds teachers that have the {@code fullName} or a part of it in their full name
      *
@@ -93,11 +113,88 @@ public class Teachers extends NAILResponseList<Teachers.TeacherObject> {
     public Teachers searchByFullName(String fullName) {
         Teachers teachers = new Teachers();
 
-        this.stream().filter(subject -> subject.getForename().contains(fullName)).forEach(teachers::add);
+        for (int position : getFullNameIndex().searchBySubstring(fullName)) {
+            if (this.get(position).getFullName().contains(fullName)) {
+                teachers.add(this.get(position));
+            }
+        }
 
         return teachers;
     }
 
+    /**
+     * Finds teachers that have a word in their full name which starts with {@code prefix}, ignoring case and diacritics
+     *
+     * @param prefix prefix of the teachers you want to search
+     * @return {@link Teachers} with teachers that have a word in their full name which starts with {@code prefix}
+     *
+     * @since 1.1
+     */
+    public Teachers searchByFullNamePrefix(String prefix) {
+        return select(new Teachers(), getFullNameIndex().searchByPrefix(prefix));
+    }
+
+    /**
+     * Finds teachers that have the {@code fullName} or a part of it in their full name, ignoring case and diacritics
+     *
+     * @param fullName full name of the teachers you want to search
+     * @return {@link Teachers} with teachers that have the {@code fullName} or a part of it in their full name
+     *
+     * @since 1.1
+     */
+    public Teachers searchByFullNameIgnoreCase(String fullName) {
+        return select(new Teachers(), getFullNameIndex().searchBySubstring(fullName));
+    }
+
+    /**
+     * Returns the texts of a teacher which are used for the fuzzy search
+     *
+     * @param teacher teacher to get the texts of
+     * @return the name, the long name and the fore name of the teacher
+     *
+     * @since 1.1
+     */
+    @Override
+    protected String[] getFuzzyTexts(TeacherObject teacher) {
+        return new String[]{teacher.getName(), teacher.getLongName(), teacher.getForename()};
+    }
+
+    /**
+     * Returns the text index over the fore names of the teachers
+     *
+     * @return the text index over the fore names of the teachers
+     *
+     * @since 1.1
+     */
+    public TextIndex getForeNameIndex() {
+        foreNameIndex = getTextIndex(foreNameIndex, TeacherObject::getForename);
+        return foreNameIndex;
+    }
+
+    /**
+     * Returns the text index over the full names of the teachers
+     *
+     * @return the text index over the full names of the teachers
+     *
+     * @since 1.1
+     */
+    public TextIndex getFullNameIndex() {
+        fullNameIndex = getTextIndex(fullNameIndex, TeacherObject::getFullName);
+        return fullNameIndex;
+    }
+
+    /**
+     * Creates a new, empty {@link Teachers} list, which is used for the results of the search methods
+     *
+     * @return the new list
+     *
+     * @since 1.1
+     */
+    @Override
+    protected Teachers newList() {
+        return new Teachers();
+    }
+
     /**
      * Class to get information about a teacher
      *
@@ -3,6 +3,7 @@ package org.bytedream.untis4j.responseObjects;
 import org.bytedream.untis4j.UntisUtils;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.ResponseList;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.ResponseObject;
+import org.bytedream.untis4j.responseObjects.baseObjects.IdIndex;
 import org.json.JSONObject;
 
 import java.util.HashMap;
@@ -15,6 +16,8 @@ import java.util.HashMap;
  */
 public class TimegridUnits extends ResponseList<TimegridUnits.TimegridUnitObject> {
 
+    private transient volatile IdIndex dayIndex = null;
+
     /**
      * Finds a timegrid unit by its day
      *
@@ -24,7 +27,8 @@ public class TimegridUnits extends ResponseList<TimegridUnits.TimegridUnitObject
      * @since 1.0
      */
     public TimegridUnitObject findByDay(int day) {
-        return this.stream().filter(timegridUnitObject -> timegridUnitObject.getDay() == day).findAny().orElse(null);
+        int position = getDayIndex().getPosition(day);
+        return position < 0 ? null : this.get(position);
     }
 
     /**
@@ -48,11 +52,7 @@ public class TimegridUnits extends ResponseList<TimegridUnits.TimegridUnitObject
      * @since 1.0
      */
     public TimegridUnits searchByDay(int day) {
-        TimegridUnits timegridUnits = new TimegridUnits();
-
-        this.stream().filter(timegridUnitObject -> String.valueOf(timegridUnitObject.getDay()).contains(String.valueOf(day))).forEach(timegridUnits::add);
-
-        return timegridUnits;
+        return select(new TimegridUnits(), getDayIndex().getPositionsByDigits(day));
     }
 
     /**
@@ -75,6 +75,18 @@ public class TimegridUnits extends ResponseList<TimegridUnits.TimegridUnitObject
         return timegridUnits;
     }
 
+    /**
+     * Returns the index over the days of the timegrid units
+     *
+     * @return the index over the days of the timegrid units
+     *
+     * @since 1.1
+     */
+    public IdIndex getDayIndex() {
+        dayIndex = getIdIndex(dayIndex, TimegridUnitObject::getDay);
+        return dayIndex;
+    }
+
     /**
      * Class to get information about a timegrid unit
      *
@@ -1,18 +1,31 @@
 package org.bytedream.untis4j.responseObjects;
 
+import org.bytedream.untis4j.IntSet;
 import org.bytedream.untis4j.UntisUtils;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseLists.ResponseList;
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.ResponseObject;
+import org.json.JSONArray;
 import org.json.JSONObject;
 
 import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.LocalTime;
 import java.time.format.DateTimeFormatter;
+import java.util.Collection;
+import java.util.Comparator;
 import java.util.HashMap;
+import java.util.Map;
 import java.util.Set;
 
 public class Timetable extends ResponseList<Timetable.Lesson> {
 
+    private static final Comparator<Lesson> DATE_AND_TIME_ORDER = Comparator.comparingLong(Lesson::epochDay)
+            .thenComparingInt(Lesson::startMinute)
+            .thenComparingInt(Lesson::endMinute);
+
+    private transient volatile TimetableIntervalIndex intervalIndex = null;
+    private transient volatile TimetableIdIndex idIndex = null;
+
     /**
      * Finds a timetable by its date (basically returns itself, if the date is correct)
      *
@@ -22,7 +35,9 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable findByDate(LocalDate date) {
-        if (this.stream().allMatch(lesson -> lesson.getDate().equals(date))) {
+        TimetableIntervalIndex index = getIntervalIndex();
+
+        if (index.isEmpty() || (index.firstEpochDay() == date.toEpochDay() && index.lastEpochDay() == date.toEpochDay())) {
             return this;
         } else {
             return null;
@@ -38,7 +53,13 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Lesson findByStartTime(LocalTime startTime) {
-        return this.stream().filter(lesson -> lesson.getStartTime().equals(startTime)).findAny().orElse(null);
+        if (startTime.getSecond() != 0 || startTime.getNano() != 0) {
+            return null;
+        }
+
+        int[] positions = getIntervalIndex().startingAt(startTime.toSecondOfDay() / 60);
+
+        return positions.length == 0 ? null : this.get(positions[0]);
     }
 
     /**
@@ -50,7 +71,13 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Lesson findByEndTime(LocalTime endTime) {
-        return this.stream().filter(lesson -> lesson.getEndTime().equals(endTime)).findAny().orElse(null);
+        if (endTime.getSecond() != 0 || endTime.getNano() != 0) {
+            return null;
+        }
+
+        int[] positions = getIntervalIndex().endingAt(endTime.toSecondOfDay() / 60);
+
+        return positions.length == 0 ? null : this.get(positions[0]);
     }
 
     /**
@@ -62,7 +89,9 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Lesson findByKlassenIds(Set<Integer> klassenIds) {
-        return this.stream().filter(lesson -> lesson.getKlassenIds().containsAll(klassenIds)).findAny().orElse(null);
+        IntSet ids = IntSet.copyOf(klassenIds);
+
+        return this.stream().filter(lesson -> lesson.getKlassenIds().containsAll(ids)).findAny().orElse(null);
     }
 
     /**
@@ -74,7 +103,9 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Lesson findByTeacherIds(Set<Integer> teacherIds) {
-        return this.stream().filter(lesson -> lesson.getTeacherIds().containsAll(teacherIds)).findAny().orElse(null);
+        IntSet ids = IntSet.copyOf(teacherIds);
+
+        return this.stream().filter(lesson -> lesson.getTeacherIds().containsAll(ids)).findAny().orElse(null);
     }
 
     /**
@@ -86,7 +117,9 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Lesson findByRoomIds(Set<Integer> roomIds) {
-        return this.stream().filter(lesson -> lesson.getRoomIds().containsAll(roomIds)).findAny().orElse(null);
+        IntSet ids = IntSet.copyOf(roomIds);
+
+        return this.stream().filter(lesson -> lesson.getRoomIds().containsAll(ids)).findAny().orElse(null);
     }
 
     /**
@@ -98,7 +131,9 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Lesson findBySubjectIds(Set<Integer> subjectIds) {
-        return this.stream().filter(lesson -> lesson.getSubjectIds().containsAll(subjectIds)).findAny().orElse(null);
+        IntSet ids = IntSet.copyOf(subjectIds);
+
+        return this.stream().filter(lesson -> lesson.getSubjectIds().containsAll(ids)).findAny().orElse(null);
     }
 
     /**
@@ -142,11 +177,69 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchByDate(LocalDate date) {
-        Timetable timetable = new Timetable();
+        return searchByDateRange(date, date);
+    }
 
-        this.stream().filter(lesson -> lesson.getDate().format(DateTimeFormatter.ofPattern("yyyyMMdd")).contains(date.format(DateTimeFormatter.ofPattern("yyyyMMdd")))).forEach(timetable::add);
+    /**
+     * Finds lessons that are between {@code start} and {@code end} (both inclusive)
+     *
+     * @param start first date of the lessons you want to search
+     * @param end last date of the lessons you want to search
+     * @return {@link Timetable} with lessons that are between {@code start} and {@code end}, sorted by date and start time
+     *
+     * @since 1.1
+     */
+    public Timetable searchByDateRange(LocalDate start, LocalDate end) {
+        return select(getIntervalIndex().startingBetween(start.toEpochDay(), end.toEpochDay()));
+    }
 
-        return timetable;
+    /**
+     * Finds lessons that take place (at least partially) between {@code start} (inclusive) and {@code end} (exclusive)
+     *
+     * @param start beginning of the period
+     * @param end end of the period
+     * @return {@link Timetable} with lessons that overlap the period, sorted by date and start time
+     *
+     * @since 1.1
+     */
+    public Timetable searchByPeriod(LocalDateTime start, LocalDateTime end) {
+        return select(getIntervalIndex().overlapping(toEpochMinute(start, false), toEpochMinute(end, true)));
+    }
+
+    /**
+     * Finds lessons on {@code date} that take place (at least partially) between {@code startTime} (inclusive) and {@code endTime} (exclusive)
+     *
+     * @see Timetable#searchByPeriod(LocalDateTime, LocalDateTime)
+     *
+     * @since 1.1
+     */
+    public Timetable searchByPeriod(LocalDate date, LocalTime startTime, LocalTime endTime) {
+        return searchByPeriod(date.atTime(startTime), date.atTime(endTime));
+    }
+
+    /**
+     * Finds lessons that take place at {@code dateTime}
+     *
+     * @param dateTime date and time of the lessons you want to search
+     * @return {@link Timetable} with lessons that take place at {@code dateTime}, sorted by date and start time
+     *
+     * @since 1.1
+     */
+    public Timetable searchByDateTime(LocalDateTime dateTime) {
+        long minute = toEpochMinute(dateTime, false);
+
+        return select(getIntervalIndex().overlapping(minute, minute + 1));
+    }
+
+    /**
+     * Finds lessons that take place right now
+     *
+     * @see Timetable#searchByDateTime(LocalDateTime)
+     *
+     * @since 1.1
+     */
+    public Timetable searchCurrent() {
+        return searchByDateTime(LocalDateTime.now());
     }
 
     /**
@@ -158,11 +251,11 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchByStartTime(LocalTime startTime) {
-        Timetable timetable = new Timetable();
-
-        this.stream().filter(lesson -> lesson.getStartTime().format(DateTimeFormatter.ofPattern("HHmmss")).contains(startTime.format(DateTimeFormatter.ofPattern("HHmmss")))).forEach(timetable::add);
+        if (startTime.getSecond() != 0 || startTime.getNano() != 0) {
+            return new Timetable();
+        }
 
-        return timetable;
+        return select(getIntervalIndex().startingAt(startTime.toSecondOfDay() / 60));
     }
 
     /**
@@ -174,11 +267,11 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchByEndTime(LocalTime endTime) {
-        Timetable timetable = new Timetable();
-
-        this.stream().filter(lesson -> lesson.getStartTime().format(DateTimeFormatter.ofPattern("HHmmss")).contains(endTime.format(DateTimeFormatter.ofPattern("HHmmss")))).forEach(timetable::add);
+        if (endTime.getSecond() != 0 || endTime.getNano() != 0) {
+            return new Timetable();
+        }
 
-        return timetable;
+        return select(getIntervalIndex().endingAt(endTime.toSecondOfDay() / 60));
     }
 
     /**
@@ -190,15 +283,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchByKlassenIds(Set<Integer> klassenIds) {
-        Timetable timetable = new Timetable();
-
-        this.forEach(lesson -> {
-            if (UntisUtils.setContainsSetItem(lesson.getKlassenIds(), klassenIds)) {
-                timetable.add(lesson);
-            }
-        });
-
-        return timetable;
+        return select(getIdIndex().getPositions(UntisUtils.ElementType.KLASSE, IntSet.copyOf(klassenIds)));
     }
 
     /**
@@ -210,15 +295,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchByTeacherIds(Set<Integer> teacherIds) {
-        Timetable timetable = new Timetable();
-
-        this.forEach(lesson -> {
-            if (UntisUtils.setContainsSetItem(lesson.getTeacherIds(), teacherIds)) {
-                timetable.add(lesson);
-            }
-        });
-
-        return timetable;
+        return select(getIdIndex().getPositions(UntisUtils.ElementType.TEACHER, IntSet.copyOf(teacherIds)));
     }
 
     /**
@@ -230,15 +307,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchByRoomIds(Set<Integer> roomIds) {
-        Timetable timetable = new Timetable();
-
-        this.forEach(lesson -> {
-            if (UntisUtils.setContainsSetItem(lesson.getRoomIds(), roomIds)) {
-                timetable.add(lesson);
-            }
-        });
-
-        return timetable;
+        return select(getIdIndex().getPositions(UntisUtils.ElementType.ROOM, IntSet.copyOf(roomIds)));
     }
 
     /**
@@ -250,15 +319,34 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
      * @since 1.0
      */
     public Timetable searchBySubjectIds(Set<Integer> subjectIds) {
-        Timetable timetable = new Timetable();
+        return select(getIdIndex().getPositions(UntisUtils.ElementType.SUBJECT, IntSet.copyOf(subjectIds)));
+    }
+
+    /**
+     * Finds lessons that match all given element types, a lesson matches an element type if it has at least one of the ids of this type.
+     *
+     * <p>E.g. {@code searchByIds(Collections.singletonMap(TEACHER, teacherIds))} is the same as {@code searchByTeacherIds(teacherIds)},
+     * a map with a teacher and a room id finds all lessons of the teacher in this room</p>
+     *
+     * @param ids ids of the lessons you want to search, grouped by their element type
+     * @return {@link Timetable} with lessons that match all element types
+     *
+     * @since 1.1
+     */
+    public Timetable searchByIds(Map<UntisUtils.ElementType, ? extends Collection<Integer>> ids) {
+        TimetableIdIndex index = getIdIndex();
+        int[] positions = null;
+
+        for (Map.Entry<UntisUtils.ElementType, ? extends Collection<Integer>> entry : ids.entrySet()) {
+            int[] typePositions = index.getPositions(entry.getKey(), IntSet.copyOf(entry.getValue()));
+            positions = positions == null ? typePositions : TimetableIdIndex.intersect(positions, typePositions);
 
-        this.forEach(lesson -> {
-            if (UntisUtils.setContainsSetItem(lesson.getSubjectIds(), subjectIds)) {
-                timetable.add(lesson);
+            if (positions.length == 0) {
+                break;
             }
-        });
+        }
 
-        return timetable;
+        return positions == null ? select(new int[0]) : select(positions);
     }
 
     /**
@@ -293,6 +381,83 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
         return timetable;
     }
 
+    /**
+     * Sorts the lessons by their date, start time and end time
+     *
+     * @since 1.1
+     */
+    public void sortByDateAndTime() {
+        this.sort(DATE_AND_TIME_ORDER);
+    }
+
+    /**
+     * Returns the date and time index of this timetable, builds it if the timetable has been modified since the last build
+     *
+     * @return the date and time index
+     */
+    TimetableIntervalIndex getIntervalIndex() {
+        TimetableIntervalIndex index = intervalIndex;
+        if (index == null || index.version != getVersion()) {
+            index = new TimetableIntervalIndex(this, getVersion());
+            intervalIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the id index of this timetable, builds it if it wasn't built yet or the timetable has been modified since the last build
+     *
+     * @return the id index
+     *
+     * @since 1.1
+     */
+    public TimetableIdIndex getIdIndex() {
+        TimetableIdIndex index = idIndex;
+        if (index == null || index.version != getVersion()) {
+            index = new TimetableIdIndex(this, getVersion());
+            idIndex = index;
+        }
+        return index;
+    }
+
+    /**
+     * Returns a timetable which contains the lessons at the given positions
+     *
+     * @param positions positions of the lessons, e.g. from {@link TimetableIdIndex}
+     * @return the timetable
+     *
+     * @since 1.1
+     */
+    public Timetable select(int[] positions) {
+        Timetable timetable = new Timetable();
+        timetable.ensureCapacity(positions.length);
+
+        for (int position : positions) {
+            timetable.add(this.get(position));
+        }
+
+        return timetable;
+    }
+
+    private static long toEpochMinute(LocalDateTime dateTime, boolean roundUp) {
+        long minute = dateTime.toLocalDate().toEpochDay() * TimetableIntervalIndex.MINUTES_PER_DAY + dateTime.toLocalTime().toSecondOfDay() / 60;
+        if (roundUp && (dateTime.getSecond() != 0 || dateTime.getNano() != 0)) {
+            minute++;
+        }
+        return minute;
+    }
+
+    /**
+     * Returns a read only {@link ColumnarTimetable} copy of this timetable, which is better suited for scanning many lessons
+     *
+     * @return a {@link ColumnarTimetable} copy of this timetable
+     *
+     * @since 1.1
+     */
+    public ColumnarTimetable toColumnar() {
+        return ColumnarTimetable.of(this);
+    }
+
     /**
      * Class to get information about a lesson
      *
@@ -304,10 +469,10 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
         private final LocalDate date;
         private final LocalTime startTime;
         private final LocalTime endTime;
-        private final Set<Integer> klassenIds;
-        private final Set<Integer> teacherIds;
-        private final Set<Integer> roomIds;
-        private final Set<Integer> subjectIds;
+        private final IntSet klassenIds;
+        private final IntSet teacherIds;
+        private final IntSet roomIds;
+        private final IntSet subjectIds;
         private final UntisUtils.LessonCode code;
         private final String activityType;
 
@@ -317,10 +482,10 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
          * @param date date of the timetable
          * @param startTime time when the lesson start
          * @param endTime time when the lesson end
-         * @param klassenIds ids of the classes
-         * @param teacherId ids of the teachers
-         * @param roomIds ids of the rooms
-         * @param subjectIds ids of the subjects
+         * @param klassenIds ids of the classes (gets copied into an {@link IntSet}, if it isn't already one)
+         * @param teacherId ids of the teachers (gets copied into an {@link IntSet}, if it isn't already one)
+         * @param roomIds ids of the rooms (gets copied into an {@link IntSet}, if it isn't already one)
+         * @param subjectIds ids of the subjects (gets copied into an {@link IntSet}, if it isn't already one)
          * @param code code of the lesson (normally null, {@link UntisUtils.LessonCode#CANCELLED} if the lesson is cancelled, {@code UntisUtils.LessonCode.IRREGULAR} if e.g. a lesson has been moved
          * @param activityType type of the lesson
          *
@@ -336,10 +501,10 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
                       UntisUtils.LessonCode code,
                       String activityType) {
             this.date = date;
-            this.klassenIds = klassenIds;
-            this.teacherIds = teacherId;
-            this.roomIds = roomIds;
-            this.subjectIds = subjectIds;
+            this.klassenIds = IntSet.copyOf(klassenIds);
+            this.teacherIds = IntSet.copyOf(teacherId);
+            this.roomIds = IntSet.copyOf(roomIds);
+            this.subjectIds = IntSet.copyOf(subjectIds);
             this.code = code;
             this.startTime = startTime;
             this.endTime = endTime;
@@ -386,7 +551,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
          *
          * @since 1.0
          */
-        public Set<Integer> getKlassenIds() {
+        public IntSet getKlassenIds() {
             return klassenIds;
         }
 
@@ -397,7 +562,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
          *
          * @since 1.0
          */
-        public Set<Integer> getTeacherIds() {
+        public IntSet getTeacherIds() {
             return teacherIds;
         }
 
@@ -408,7 +573,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
          *
          * @since 1.0
          */
-        public Set<Integer> getRoomIds() {
+        public IntSet getRoomIds() {
             return roomIds;
         }
 
@@ -419,7 +584,7 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
          *
          * @since 1.0
          */
-        public Set<Integer> getSubjectIds() {
+        public IntSet getSubjectIds() {
             return subjectIds;
         }
 
@@ -445,6 +610,18 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
             return activityType;
         }
 
+        long epochDay() {
+            return date.toEpochDay();
+        }
+
+        int startMinute() {
+            return startTime.toSecondOfDay() / 60;
+        }
+
+        int endMinute() {
+            return endTime.toSecondOfDay() / 60;
+        }
+
         /**
          * Returns a json parsed string with all information
          *
@@ -456,20 +633,202 @@ public class Timetable extends ResponseList<Timetable.Lesson> {
         public String toString() {
             HashMap<String, String> klasseAsMap = new HashMap<>();
 
-            klasseAsMap.put("date", date.toString());
-            klasseAsMap.put("kl", klassenIds.toString());
-            klasseAsMap.put("te", teacherIds.toString());
-            klasseAsMap.put("su", subjectIds.toString());
-            if (code != null) {
-                klasseAsMap.put("code", code.getLessonCode());
+            klasseAsMap.put("date", getDate().toString());
+            klasseAsMap.put("kl", getKlassenIds().toString());
+            klasseAsMap.put("te", getTeacherIds().toString());
+            klasseAsMap.put("su", getSubjectIds().toString());
+            if (getCode() != null) {
+                klasseAsMap.put("code", getCode().getLessonCode());
             }
-            klasseAsMap.put("startTime", startTime.format(DateTimeFormatter.ofPattern("HHmm")));
-            klasseAsMap.put("endTime", endTime.format(DateTimeFormatter.ofPattern("HHmm")));
-            klasseAsMap.put("activityType", activityType);
-            klasseAsMap.put("ro", roomIds.toString());
+            klasseAsMap.put("startTime", getStartTime().format(DateTimeFormatter.ofPattern("HHmm")));
+            klasseAsMap.put("endTime", getEndTime().format(DateTimeFormatter.ofPattern("HHmm")));
+            klasseAsMap.put("activityType", getActivityType());
+            klasseAsMap.put("ro", getRoomIds().toString());
 
             return new JSONObject(klasseAsMap).toString();
         }
+
+        /**
+         * Creates a lesson from the json object of a lesson which the untis server returns
+         *
+         * @param lessonInfo the json object of the lesson
+         * @return the lesson
+         * @throws org.json.JSONException if a field is missing or has a wrong type
+         *
+         * @see LazyLesson
+         *
+         * @since 1.1
+         */
+        public static Lesson parse(JSONObject lessonInfo) {
+            return new Lesson(UntisUtils.fromUntisDate(lessonInfo.getInt("date")),
+                    UntisUtils.fromUntisTime(lessonInfo.getInt("startTime")),
+                    UntisUtils.fromUntisTime(lessonInfo.getInt("endTime")),
+                    IntSet.of(parseIds(lessonInfo, "kl")),
+                    IntSet.of(parseIds(lessonInfo, "te")),
+                    IntSet.of(parseIds(lessonInfo, "ro")),
+                    IntSet.of(parseIds(lessonInfo, "su")),
+                    parseCode(lessonInfo.optString("code", null)),
+                    lessonInfo.getString("activityType"));
+        }
+
+        static int[] parseIds(JSONObject lessonInfo, String key) {
+            JSONArray elements = lessonInfo.getJSONArray(key);
+            int[] ids = new int[elements.length()];
+
+            for (int i = 0; i < ids.length; i++) {
+                ids[i] = elements.getJSONObject(i).getInt("id");
+            }
+
+            return ids;
+        }
+
+        static UntisUtils.LessonCode parseCode(String code) {
+            return code == null ? null : UntisUtils.LessonCode.valueOf(code.toUpperCase());
+        }
+    }
+
+    /**
+     * Lesson which keeps a compact raw record of the json object the untis server returns and decodes its fields only on first access.
+     *
+     * <p>Dates and times are kept as the numbers the server sends and all ids in one {@code int[]}, so date and time filters (e.g. {@link Timetable#searchByDate(LocalDate)})
+     * and sorting don't create any {@link LocalDate}, {@link LocalTime} or {@link IntSet} objects. Decoded fields are cached</p>
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public static class LazyLesson extends Lesson {
+
+        private static final String[] ID_KEYS = {"kl", "te", "su", "ro"};
+
+        private final int date;
+        private final int epochDay;
+        private final int startTime;
+        private final int endTime;
+        // the first ID_KEYS.length values are the end offsets of the ids of every element type, followed by the ids
+        private final int[] ids;
+        private final String code;
+
+        private LocalDate decodedDate = null;
+        private LocalTime decodedStartTime = null;
+        private LocalTime decodedEndTime = null;
+        private UntisUtils.LessonCode decodedCode = null;
+        private final IntSet[] decodedIds = new IntSet[ID_KEYS.length];
+
+        /**
+         * Initialize the {@link LazyLesson} class
+         *
+         * @param lessonInfo the json object of the lesson, which the untis server returns. Isn't referenced after the constructor has returned
+         * @throws org.json.JSONException if a field is missing or has a wrong type
+         *
+         * @since 1.1
+         */
+        public LazyLesson(JSONObject lessonInfo) {
+            super(null, null, null, IntSet.EMPTY, IntSet.EMPTY, IntSet.EMPTY, IntSet.EMPTY, null, lessonInfo.getString("activityType"));
+            date = lessonInfo.getInt("date");
+            epochDay = UntisUtils.untisDateToEpochDay(date);
+            startTime = lessonInfo.getInt("startTime");
+            endTime = lessonInfo.getInt("endTime");
+            code = lessonInfo.optString("code", null);
+
+            int[][] typeIds = new int[ID_KEYS.length][];
+            int count = ID_KEYS.length;
+            for (int i = 0; i < ID_KEYS.length; i++) {
+                typeIds[i] = parseIds(lessonInfo, ID_KEYS[i]);
+                count += typeIds[i].length;
+            }
+
+            ids = new int[count];
+            int offset = ID_KEYS.length;
+            for (int i = 0; i < ID_KEYS.length; i++) {
+                System.arraycopy(typeIds[i], 0, ids, offset, typeIds[i].length);
+                offset += typeIds[i].length;
+                ids[i] = offset;
+            }
+        }
+
+        @Override
+        public LocalDate getDate() {
+            LocalDate value = decodedDate;
+            if (value == null) {
+                value = UntisUtils.fromUntisDate(date);
+                decodedDate = value;
+            }
+            return value;
+        }
+
+        @Override
+        public LocalTime getStartTime() {
+            LocalTime value = decodedStartTime;
+            if (value == null) {
+                value = UntisUtils.fromUntisTime(startTime);
+                decodedStartTime = value;
+            }
+            return value;
+        }
+
+        @Override
+        public LocalTime getEndTime() {
+            LocalTime value = decodedEndTime;
+            if (value == null) {
+                value = UntisUtils.fromUntisTime(endTime);
+                decodedEndTime = value;
+            }
+            return value;
+        }
+
+        @Override
+        public IntSet getKlassenIds() {
+            return decodeIds(0);
+        }
+
+        @Override
+        public IntSet getTeacherIds() {
+            return decodeIds(1);
+        }
+
+        @Override
+        public IntSet getSubjectIds() {
+            return decodeIds(2);
+        }
+
+        @Override
+        public IntSet getRoomIds() {
+            return decodeIds(3);
+        }
+
+        @Override
+        public UntisUtils.LessonCode getCode() {
+            UntisUtils.LessonCode value = decodedCode;
+            if (value == null && code != null) {
+                value = parseCode(code);
+                decodedCode = value;
+            }
+            return value;
+        }
+
+        @Override
+        long epochDay() {
+            return epochDay;
+        }
+
+        @Override
+        int startMinute() {
+            return UntisUtils.untisTimeToMinute(startTime);
+        }
+
+        @Override
+        int endMinute() {
+            return UntisUtils.untisTimeToMinute(endTime);
+        }
+
+        private IntSet decodeIds(int type) {
+            IntSet value = decodedIds[type];
+            if (value == null) {
+                value = IntSet.ofRange(ids, type == 0 ? ID_KEYS.length : ids[type - 1], ids[type]);
+                decodedIds[type] = value;
+            }
+            return value;
+        }
     }
 
 }
@@ -0,0 +1,454 @@
+package org.bytedream.untis4j.responseObjects;
+
+import org.bytedream.untis4j.IntSet;
+import org.json.JSONObject;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Differences between two snapshots of a timetable.
+ *
+ * <p>Lessons are matched by their date, start time, subjects and klassen. Lessons which are left over afterwards are matched by their date, subjects and klassen,
+ * so a lesson which was moved to another time of the same day is changed and not removed and added again.
+ * Lessons which only exist in the newer snapshot are added, lessons which only exist in the older one are removed and matched lessons whose other fields differ are changed.
+ * Both timetables are merged in one pass over the lessons ordered by date and start time and the lessons of every start time are merged by their key.
+ * Timetables returned by {@link org.bytedream.untis4j.Session#getTimetable(java.time.LocalDate, java.time.LocalDate, org.bytedream.untis4j.UntisUtils.ElementType, int)} are already ordered,
+ * so only the (small) groups of lessons which start at the same time get sorted</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public class TimetableDiff {
+
+    private static final Comparator<Timetable.Lesson> START_ORDER = Comparator.comparingLong(Timetable.Lesson::epochDay)
+            .thenComparingInt(Timetable.Lesson::startMinute);
+    private static final Comparator<Timetable.Lesson> KEY_ORDER = Comparator.comparing(Timetable.Lesson::getSubjectIds, TimetableDiff::compareIds)
+            .thenComparing(Timetable.Lesson::getKlassenIds, TimetableDiff::compareIds);
+    // lessons with the same key are additionally ordered by their other fields, so that equal lessons end up at the same position of their run
+    private static final Comparator<Timetable.Lesson> GROUP_ORDER = KEY_ORDER
+            .thenComparing(Timetable.Lesson::getTeacherIds, TimetableDiff::compareIds)
+            .thenComparing(Timetable.Lesson::getRoomIds, TimetableDiff::compareIds)
+            .thenComparingInt(Timetable.Lesson::endMinute);
+    // lessons which are left over are matched by day and key, and runs of the same key are paired in the order of their start times
+    private static final Comparator<Timetable.Lesson> DAY_KEY_ORDER = Comparator.comparingLong(Timetable.Lesson::epochDay)
+            .thenComparing(KEY_ORDER);
+
+    private final Timetable added;
+    private final Timetable removed;
+    private final List<LessonChange> changed;
+
+    private TimetableDiff(Timetable added, Timetable removed, List<LessonChange> changed) {
+        this.added = added;
+        this.removed = removed;
+        this.changed = Collections.unmodifiableList(changed);
+    }
+
+    /**
+     * Computes the differences between two snapshots of a timetable
+     *
+     * @param oldTimetable the older snapshot
+     * @param newTimetable the newer snapshot
+     * @return the differences
+     *
+     * @since 1.1
+     */
+    public static TimetableDiff compare(Timetable oldTimetable, Timetable newTimetable) {
+        List<Timetable.Lesson> oldLessons = sortedByStart(oldTimetable);
+        List<Timetable.Lesson> newLessons = sortedByStart(newTimetable);
+
+        Timetable added = new Timetable();
+        Timetable removed = new Timetable();
+        List<LessonChange> changed = new ArrayList<>();
+
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (oldIndex < oldLessons.size() || newIndex < newLessons.size()) {
+            int order;
+            if (oldIndex == oldLessons.size()) {
+                order = 1;
+            } else if (newIndex == newLessons.size()) {
+                order = -1;
+            } else {
+                order = START_ORDER.compare(oldLessons.get(oldIndex), newLessons.get(newIndex));
+            }
+
+            if (order < 0) {
+                removed.add(oldLessons.get(oldIndex++));
+            } else if (order > 0) {
+                added.add(newLessons.get(newIndex++));
+            } else {
+                // all lessons which start at the same time form a group, only lessons of the same group can match
+                int oldEnd = runEnd(oldLessons, oldIndex, START_ORDER);
+                int newEnd = runEnd(newLessons, newIndex, START_ORDER);
+                compareGroup(oldLessons.subList(oldIndex, oldEnd), newLessons.subList(newIndex, newEnd), added, removed, changed);
+                oldIndex = oldEnd;
+                newIndex = newEnd;
+            }
+        }
+
+        matchMoved(added, removed, changed);
+
+        return new TimetableDiff(added, removed, changed);
+    }
+
+    /**
+     * Matches the added and removed lessons which have the same date and key, but a different start time
+     */
+    private static void matchMoved(Timetable added, Timetable removed, List<LessonChange> changed) {
+        if (added.isEmpty() || removed.isEmpty()) {
+            return;
+        }
+
+        List<Timetable.Lesson> oldSorted = new ArrayList<>(removed);
+        List<Timetable.Lesson> newSorted = new ArrayList<>(added);
+        Comparator<Timetable.Lesson> order = DAY_KEY_ORDER.thenComparingInt(Timetable.Lesson::startMinute);
+        oldSorted.sort(order);
+        newSorted.sort(order);
+
+        Set<Timetable.Lesson> matchedOld = Collections.newSetFromMap(new IdentityHashMap<>());
+        Set<Timetable.Lesson> matchedNew = Collections.newSetFromMap(new IdentityHashMap<>());
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (oldIndex < oldSorted.size() && newIndex < newSorted.size()) {
+            int compared = DAY_KEY_ORDER.compare(oldSorted.get(oldIndex), newSorted.get(newIndex));
+            if (compared < 0) {
+                oldIndex++;
+            } else if (compared > 0) {
+                newIndex++;
+            } else {
+                int oldEnd = runEnd(oldSorted, oldIndex, DAY_KEY_ORDER);
+                int newEnd = runEnd(newSorted, newIndex, DAY_KEY_ORDER);
+                for (int i = 0; oldIndex + i < oldEnd && newIndex + i < newEnd; i++) {
+                    Timetable.Lesson oldLesson = oldSorted.get(oldIndex + i);
+                    Timetable.Lesson newLesson = newSorted.get(newIndex + i);
+                    matchedOld.add(oldLesson);
+                    matchedNew.add(newLesson);
+                    changed.add(new LessonChange(oldLesson, newLesson, changedFields(oldLesson, newLesson)));
+                }
+                oldIndex = oldEnd;
+                newIndex = newEnd;
+            }
+        }
+
+        if (!matchedOld.isEmpty()) {
+            removed.removeIf(matchedOld::contains);
+            added.removeIf(matchedNew::contains);
+            changed.sort(Comparator.comparing(LessonChange::getNewLesson, START_ORDER));
+        }
+    }
+
+    private static List<Timetable.Lesson> sortedByStart(Timetable timetable) {
+        for (int i = 1; i < timetable.size(); i++) {
+            if (START_ORDER.compare(timetable.get(i - 1), timetable.get(i)) > 0) {
+                List<Timetable.Lesson> sorted = new ArrayList<>(timetable);
+                sorted.sort(START_ORDER);
+                return sorted;
+            }
+        }
+        return timetable;
+    }
+
+    private static int runEnd(List<Timetable.Lesson> lessons, int start, Comparator<Timetable.Lesson> order) {
+        int end = start + 1;
+        while (end < lessons.size() && order.compare(lessons.get(start), lessons.get(end)) == 0) {
+            end++;
+        }
+        return end;
+    }
+
+    private static int compareIds(IntSet a, IntSet b) {
+        for (int i = 0; i < a.size() && i < b.size(); i++) {
+            if (a.get(i) != b.get(i)) {
+                return Integer.compare(a.get(i), b.get(i));
+            }
+        }
+        return Integer.compare(a.size(), b.size());
+    }
+
+    private static void compareGroup(List<Timetable.Lesson> oldGroup, List<Timetable.Lesson> newGroup, Timetable added, Timetable removed, List<LessonChange> changed) {
+        if (oldGroup.size() == 1 && newGroup.size() == 1) {
+            compareRun(oldGroup, newGroup, added, removed, changed);
+            return;
+        }
+
+        // a group can contain a lesson of every klasse, so it's merged by the lesson keys instead of comparing every pair
+        List<Timetable.Lesson> oldSorted = new ArrayList<>(oldGroup);
+        List<Timetable.Lesson> newSorted = new ArrayList<>(newGroup);
+        oldSorted.sort(GROUP_ORDER);
+        newSorted.sort(GROUP_ORDER);
+
+        int oldIndex = 0;
+        int newIndex = 0;
+        while (oldIndex < oldSorted.size() || newIndex < newSorted.size()) {
+            int order;
+            if (oldIndex == oldSorted.size()) {
+                order = 1;
+            } else if (newIndex == newSorted.size()) {
+                order = -1;
+            } else {
+                order = KEY_ORDER.compare(oldSorted.get(oldIndex), newSorted.get(newIndex));
+            }
+
+            if (order < 0) {
+                removed.add(oldSorted.get(oldIndex++));
+            } else if (order > 0) {
+                added.add(newSorted.get(newIndex++));
+            } else {
+                int oldEnd = runEnd(oldSorted, oldIndex, KEY_ORDER);
+                int newEnd = runEnd(newSorted, newIndex, KEY_ORDER);
+                compareRun(oldSorted.subList(oldIndex, oldEnd), newSorted.subList(newIndex, newEnd), added, removed, changed);
+                oldIndex = oldEnd;
+                newIndex = newEnd;
+            }
+        }
+    }
+
+    /**
+     * Matches lessons which start at the same time and usually have the same key. Runs are tiny, so every pair is compared
+     */
+    private static void compareRun(List<Timetable.Lesson> oldGroup, List<Timetable.Lesson> newGroup, Timetable added, Timetable removed, List<LessonChange> changed) {
+        Timetable.Lesson[] matches = new Timetable.Lesson[newGroup.size()];
+        boolean[] matched = new boolean[oldGroup.size()];
+
+        // unchanged lessons are matched first, so that lessons with the same key are paired with their unchanged counterpart if there is one
+        for (int i = 0; i < newGroup.size(); i++) {
+            for (int j = 0; j < oldGroup.size(); j++) {
+                if (matched[j]) {
+                    continue;
+                }
+                Set<Field> fields = changedFields(oldGroup.get(j), newGroup.get(i));
+                if (fields != null && fields.isEmpty()) {
+                    matched[j] = true;
+                    matches[i] = oldGroup.get(j);
+                    break;
+                }
+            }
+        }
+        for (int i = 0; i < newGroup.size(); i++) {
+            if (matches[i] != null) {
+                continue;
+            }
+            for (int j = 0; j < oldGroup.size(); j++) {
+                if (!matched[j]) {
+                    Set<Field> fields = changedFields(oldGroup.get(j), newGroup.get(i));
+                    if (fields != null) {
+                        matched[j] = true;
+                        matches[i] = oldGroup.get(j);
+                        changed.add(new LessonChange(oldGroup.get(j), newGroup.get(i), fields));
+                        break;
+                    }
+                }
+            }
+        }
+
+        for (int j = 0; j < oldGroup.size(); j++) {
+            if (!matched[j]) {
+                removed.add(oldGroup.get(j));
+            }
+        }
+        for (int i = 0; i < newGroup.size(); i++) {
+            if (matches[i] == null) {
+                added.add(newGroup.get(i));
+            }
+        }
+    }
+
+    /**
+     * Returns the fields which differ between two lessons
+     *
+     * @return the changed fields, {@code null} if the lessons have different subjects or klassen and don't match
+     */
+    private static Set<Field> changedFields(Timetable.Lesson oldLesson, Timetable.Lesson newLesson) {
+        if (!oldLesson.getSubjectIds().equals(newLesson.getSubjectIds()) || !oldLesson.getKlassenIds().equals(newLesson.getKlassenIds())) {
+            return null;
+        }
+
+        Set<Field> fields = EnumSet.noneOf(Field.class);
+        if (oldLesson.startMinute() != newLesson.startMinute()) {
+            fields.add(Field.START_TIME);
+        }
+        if (oldLesson.endMinute() != newLesson.endMinute()) {
+            fields.add(Field.END_TIME);
+        }
+        if (!oldLesson.getTeacherIds().equals(newLesson.getTeacherIds())) {
+            fields.add(Field.TEACHERS);
+        }
+        if (!oldLesson.getRoomIds().equals(newLesson.getRoomIds())) {
+            fields.add(Field.ROOMS);
+        }
+        if (oldLesson.getCode() != newLesson.getCode()) {
+            fields.add(Field.CODE);
+        }
+        if (!Objects.equals(oldLesson.getActivityType(), newLesson.getActivityType())) {
+            fields.add(Field.ACTIVITY_TYPE);
+        }
+        return fields;
+    }
+
+    /**
+     * Returns the lessons which only exist in the newer snapshot
+     *
+     * @return the added lessons, ordered by date and start time
+     *
+     * @since 1.1
+     */
+    public Timetable getAdded() {
+        return added;
+    }
+
+    /**
+     * Returns the lessons which only exist in the older snapshot
+     *
+     * @return the removed lessons, ordered by date and start time
+     *
+     * @since 1.1
+     */
+    public Timetable getRemoved() {
+        return removed;
+    }
+
+    /**
+     * Returns the lessons which exist in both snapshots, but have different fields
+     *
+     * @return the changed lessons, ordered by date and start time
+     *
+     * @since 1.1
+     */
+    public List<LessonChange> getChanged() {
+        return changed;
+    }
+
+    /**
+     * Returns if the snapshots have no differences
+     *
+     * @return if the snapshots have no differences
+     *
+     * @since 1.1
+     */
+    public boolean isEmpty() {
+        return added.isEmpty() && removed.isEmpty() && changed.isEmpty();
+    }
+
+    /**
+     * Returns a json parsed string with all information
+     *
+     * @return a json parsed string with all information
+     *
+     * @since 1.1
+     */
+    @Override
+    public String toString() {
+        HashMap<String, Object> diffAsMap = new HashMap<>();
+
+        diffAsMap.put("added", added.size());
+        diffAsMap.put("removed", removed.size());
+        diffAsMap.put("changed", changed.size());
+
+        return new JSONObject(diffAsMap).toString();
+    }
+
+    /**
+     * Fields of a lesson which can change without the lesson getting replaced by another one
+     *
+     * @since 1.1
+     */
+    public enum Field {
+        START_TIME,
+        END_TIME,
+        TEACHERS,
+        ROOMS,
+        CODE,
+        ACTIVITY_TYPE
+    }
+
+    /**
+     * Class to get information about a changed lesson
+     *
+     * @version 1.0
+     * @since 1.1
+     */
+    public static class LessonChange {
+
+        private final Timetable.Lesson oldLesson;
+        private final Timetable.Lesson newLesson;
+        private final Set<Field> changedFields;
+
+        private LessonChange(Timetable.Lesson oldLesson, Timetable.Lesson newLesson, Set<Field> changedFields) {
+            this.oldLesson = oldLesson;
+            this.newLesson = newLesson;
+            this.changedFields = Collections.unmodifiableSet(changedFields);
+        }
+
+        /**
+         * Returns the lesson from the older snapshot
+         *
+         * @return the lesson from the older snapshot
+         *
+         * @since 1.1
+         */
+        public Timetable.Lesson getOldLesson() {
+            return oldLesson;
+        }
+
+        /**
+         * Returns the lesson from the newer snapshot
+         *
+         * @return the lesson from the newer snapshot
+         *
+         * @since 1.1
+         */
+        public Timetable.Lesson getNewLesson() {
+            return newLesson;
+        }
+
+        /**
+         * Returns the fields which changed
+         *
+         * @return the fields which changed, never empty
+         *
+         * @since 1.1
+         */
+        public Set<Field> getChangedFields() {
+            return changedFields;
+        }
+
+        /**
+         * Checks if a field changed
+         *
+         * @param field field to check
+         * @return if the field changed
+         *
+         * @since 1.1
+         */
+        public boolean hasChanged(Field field) {
+            return changedFields.contains(field);
+        }
+
+        /**
+         * Returns a json parsed string with all information
+         *
+         * @return a json parsed string with all information
+         *
+         * @since 1.1
+         */
+        @Override
+        public String toString() {
+            HashMap<String, Object> changeAsMap = new HashMap<>();
+
+            changeAsMap.put("old", new JSONObject(oldLesson.toString()));
+            changeAsMap.put("new", new JSONObject(newLesson.toString()));
+            changeAsMap.put("changedFields", changedFields.toString());
+
+            return new JSONObject(changeAsMap).toString();
+        }
+    }
+
+}
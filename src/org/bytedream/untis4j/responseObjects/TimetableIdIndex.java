@@ -0,0 +1,240 @@
+package org.bytedream.untis4j.responseObjects;
+
+import org.bytedream.untis4j.IntSet;
+import org.bytedream.untis4j.UntisUtils;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Inverted index from klassen, teacher, subject and room ids to the positions of the lessons in a {@link Timetable}.
+ *
+ * <p>For every element type the index stores the sorted distinct ids and for each id a sorted posting list of lesson positions.
+ * Posting lists can be combined with {@link TimetableIdIndex#intersect(int[], int[])} and {@link TimetableIdIndex#union(int[], int[])} and turned back into lessons with {@link Timetable#select(int[])}.
+ * The index is immutable, {@link Timetable#getIdIndex()} rebuilds it after the timetable has been modified</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class TimetableIdIndex {
+
+    private static final int[] EMPTY = new int[0];
+    private static final UntisUtils.ElementType[] ELEMENT_TYPES = {UntisUtils.ElementType.KLASSE, UntisUtils.ElementType.TEACHER, UntisUtils.ElementType.SUBJECT, UntisUtils.ElementType.ROOM};
+
+    final long version;
+
+    private final int[][] ids = new int[ELEMENT_TYPES.length][];
+    private final int[][] offsets = new int[ELEMENT_TYPES.length][];
+    private final int[][] postings = new int[ELEMENT_TYPES.length][];
+
+    TimetableIdIndex(List<Timetable.Lesson> lessons, long version) {
+        this.version = version;
+
+        for (UntisUtils.ElementType elementType : ELEMENT_TYPES) {
+            int type = ColumnarTimetable.elementTypeIndex(elementType);
+
+            int count = 0;
+            for (Timetable.Lesson lesson : lessons) {
+                count += idsOf(lesson, elementType).size();
+            }
+
+            // (id, position) pairs packed into longs, sorting them groups the positions by id
+            long[] pairs = new long[count];
+            int pair = 0;
+            for (int position = 0; position < lessons.size(); position++) {
+                IntSet lessonIds = idsOf(lessons.get(position), elementType);
+                for (int i = 0; i < lessonIds.size(); i++) {
+                    pairs[pair++] = ((long) lessonIds.get(i) << 32) | position;
+                }
+            }
+            Arrays.sort(pairs);
+
+            int[] typeIds = new int[count];
+            int[] typeOffsets = new int[count + 1];
+            int[] typePostings = new int[count];
+            int distinct = 0;
+            for (int i = 0; i < count; i++) {
+                int id = (int) (pairs[i] >> 32);
+                if (distinct == 0 || typeIds[distinct - 1] != id) {
+                    typeIds[distinct] = id;
+                    typeOffsets[distinct] = i;
+                    distinct++;
+                }
+                typePostings[i] = (int) pairs[i];
+            }
+            typeOffsets[distinct] = count;
+
+            ids[type] = Arrays.copyOf(typeIds, distinct);
+            offsets[type] = Arrays.copyOf(typeOffsets, distinct + 1);
+            postings[type] = typePostings;
+        }
+    }
+
+    /**
+     * Returns the positions of all lessons which have the given id
+     *
+     * @param elementType type of the id
+     * @param id the id
+     * @return the sorted positions of the lessons
+     *
+     * @since 1.1
+     */
+    public int[] getPositions(UntisUtils.ElementType elementType, int id) {
+        int type = ColumnarTimetable.elementTypeIndex(elementType);
+        int index = Arrays.binarySearch(ids[type], id);
+
+        if (index < 0) {
+            return EMPTY;
+        }
+        return Arrays.copyOfRange(postings[type], offsets[type][index], offsets[type][index + 1]);
+    }
+
+    /**
+     * Returns the positions of all lessons which have at least one of the given ids
+     *
+     * @param elementType type of the ids
+     * @param ids the ids
+     * @return the sorted positions of the lessons
+     *
+     * @since 1.1
+     */
+    public int[] getPositions(UntisUtils.ElementType elementType, IntSet ids) {
+        int[] positions = EMPTY;
+
+        for (int i = 0; i < ids.size(); i++) {
+            positions = union(positions, getPositions(elementType, ids.get(i)));
+        }
+
+        return positions;
+    }
+
+    /**
+     * Returns the number of lessons which have the given id, without copying its posting list
+     *
+     * @param elementType type of the id
+     * @param id the id
+     * @return the number of lessons which have the id
+     *
+     * @since 1.1
+     */
+    public int getCount(UntisUtils.ElementType elementType, int id) {
+        int type = ColumnarTimetable.elementTypeIndex(elementType);
+        int index = Arrays.binarySearch(ids[type], id);
+
+        return index < 0 ? 0 : offsets[type][index + 1] - offsets[type][index];
+    }
+
+    /**
+     * Returns all ids of the given type which occur in the timetable
+     *
+     * @param elementType type of the ids
+     * @return the sorted ids
+     *
+     * @since 1.1
+     */
+    public int[] getIds(UntisUtils.ElementType elementType) {
+        return ids[ColumnarTimetable.elementTypeIndex(elementType)].clone();
+    }
+
+    /**
+     * Returns the positions which are in both given sorted position arrays.
+     *
+     * <p>Steps through the bigger array with exponential search, so the runtime depends mostly on the size of the smaller array</p>
+     *
+     * @param a sorted positions
+     * @param b sorted positions
+     * @return the sorted positions which are in {@code a} and {@code b}
+     *
+     * @since 1.1
+     */
+    public static int[] intersect(int[] a, int[] b) {
+        if (a.length > b.length) {
+            int[] tmp = a;
+            a = b;
+            b = tmp;
+        }
+
+        int[] result = new int[a.length];
+        int count = 0;
+        int low = 0;
+
+        for (int value : a) {
+            int step = 1;
+            int high = low;
+            while (high < b.length && b[high] < value) {
+                low = high + 1;
+                high += step;
+                step <<= 1;
+            }
+            int index = Arrays.binarySearch(b, low, Math.min(high + 1, b.length), value);
+            if (index >= 0) {
+                result[count++] = value;
+                low = index + 1;
+            } else {
+                low = -index - 1;
+            }
+            if (low >= b.length) {
+                break;
+            }
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the positions which are in at least one of the given sorted position arrays
+     *
+     * @param a sorted positions
+     * @param b sorted positions
+     * @return the sorted positions which are in {@code a} or {@code b}
+     *
+     * @since 1.1
+     */
+    public static int[] union(int[] a, int[] b) {
+        if (a.length == 0) {
+            return b;
+        } else if (b.length == 0) {
+            return a;
+        }
+
+        int[] result = new int[a.length + b.length];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                result[count++] = a[i++];
+                j++;
+            } else if (a[i] < b[j]) {
+                result[count++] = a[i++];
+            } else {
+                result[count++] = b[j++];
+            }
+        }
+        while (i < a.length) {
+            result[count++] = a[i++];
+        }
+        while (j < b.length) {
+            result[count++] = b[j++];
+        }
+
+        return count == result.length ? result : Arrays.copyOf(result, count);
+    }
+
+    static IntSet idsOf(Timetable.Lesson lesson, UntisUtils.ElementType elementType) {
+        switch (elementType) {
+            case KLASSE:
+                return lesson.getKlassenIds();
+            case TEACHER:
+                return lesson.getTeacherIds();
+            case SUBJECT:
+                return lesson.getSubjectIds();
+            case ROOM:
+                return lesson.getRoomIds();
+            default:
+                throw new IllegalArgumentException("Lessons have no ids of type " + elementType);
+        }
+    }
+
+}
@@ -0,0 +1,211 @@
+package org.bytedream.untis4j.responseObjects;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Index over the dates and times of the lessons of a {@link Timetable}.
+ *
+ * <p>Lessons are ordered by their start (epoch day and minute of the day), together with a running maximum of their ends, so lessons on a date and lessons which overlap a period can be found by binary search.
+ * Additionally the lessons are ordered by their start and end minute of the day for time of day lookups over all dates. The index is immutable, {@link Timetable} rebuilds it after modifications</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+final class TimetableIntervalIndex {
+
+    static final int MINUTES_PER_DAY = 24 * 60;
+
+    final long version;
+
+    private final int[] order;
+    private final long[] starts;
+    private final long[] ends;
+    private final long[] maxEnds;
+
+    private final int[] startMinuteOrder;
+    private final int[] startMinutes;
+    private final int[] endMinuteOrder;
+    private final int[] endMinutes;
+
+    TimetableIntervalIndex(List<Timetable.Lesson> lessons, long version) {
+        this.version = version;
+
+        int size = lessons.size();
+        long[] lessonStarts = new long[size];
+        long[] lessonEnds = new long[size];
+        int[] lessonStartMinutes = new int[size];
+        int[] lessonEndMinutes = new int[size];
+
+        for (int i = 0; i < size; i++) {
+            Timetable.Lesson lesson = lessons.get(i);
+            long day = lesson.epochDay() * MINUTES_PER_DAY;
+            lessonStartMinutes[i] = lesson.startMinute();
+            lessonEndMinutes[i] = lesson.endMinute();
+            lessonStarts[i] = day + lessonStartMinutes[i];
+            lessonEnds[i] = day + lessonEndMinutes[i];
+        }
+
+        order = sortedPositions(lessonStarts);
+        starts = new long[size];
+        ends = new long[size];
+        maxEnds = new long[size];
+        for (int i = 0; i < size; i++) {
+            starts[i] = lessonStarts[order[i]];
+            ends[i] = lessonEnds[order[i]];
+            maxEnds[i] = i == 0 ? ends[i] : Math.max(maxEnds[i - 1], ends[i]);
+        }
+
+        startMinuteOrder = sortedPositions(toLongs(lessonStartMinutes));
+        startMinutes = new int[size];
+        endMinuteOrder = sortedPositions(toLongs(lessonEndMinutes));
+        endMinutes = new int[size];
+        for (int i = 0; i < size; i++) {
+            startMinutes[i] = lessonStartMinutes[startMinuteOrder[i]];
+            endMinutes[i] = lessonEndMinutes[endMinuteOrder[i]];
+        }
+    }
+
+    /**
+     * Returns the positions of all lessons that start at the given epoch days (inclusive), ordered by start
+     */
+    int[] startingBetween(long fromEpochDay, long toEpochDay) {
+        int from = lowerBound(starts, fromEpochDay * MINUTES_PER_DAY);
+        int to = lowerBound(starts, (toEpochDay + 1) * MINUTES_PER_DAY);
+        return Arrays.copyOfRange(order, from, Math.max(from, to));
+    }
+
+    /**
+     * Returns the positions of all lessons that overlap the period from {@code from} (inclusive) to {@code to} (exclusive), ordered by start.
+     * Both values are minutes since the epoch
+     */
+    int[] overlapping(long from, long to) {
+        int high = lowerBound(starts, to);
+        int low = upperBound(maxEnds, from);
+
+        int[] positions = new int[Math.max(0, high - low)];
+        int count = 0;
+        for (int i = low; i < high; i++) {
+            if (ends[i] > from) {
+                positions[count++] = order[i];
+            }
+        }
+        return count == positions.length ? positions : Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Returns the positions of all lessons that start at the given minute of the day, in list order
+     */
+    int[] startingAt(int minute) {
+        return equalRange(startMinuteOrder, startMinutes, minute);
+    }
+
+    /**
+     * Returns the positions of all lessons that end at the given minute of the day, in list order
+     */
+    int[] endingAt(int minute) {
+        return equalRange(endMinuteOrder, endMinutes, minute);
+    }
+
+    boolean isEmpty() {
+        return starts.length == 0;
+    }
+
+    long firstEpochDay() {
+        return Math.floorDiv(starts[0], MINUTES_PER_DAY);
+    }
+
+    long lastEpochDay() {
+        return Math.floorDiv(starts[starts.length - 1], MINUTES_PER_DAY);
+    }
+
+    private static int[] equalRange(int[] positions, int[] values, int value) {
+        int from = lowerBound(values, value);
+        int to = lowerBound(values, value + 1);
+        return Arrays.copyOfRange(positions, from, to);
+    }
+
+    private static int[] sortedPositions(long[] keys) {
+        // sort (key, position) pairs packed into one long when possible, so no boxed comparator is needed
+        int size = keys.length;
+        long min = Long.MAX_VALUE;
+        long max = Long.MIN_VALUE;
+        for (long key : keys) {
+            min = Math.min(min, key);
+            max = Math.max(max, key);
+        }
+
+        int[] positions = new int[size];
+        if (size == 0) {
+            return positions;
+        }
+
+        if (max - min < (1L << 31)) {
+            long[] packed = new long[size];
+            for (int i = 0; i < size; i++) {
+                packed[i] = ((keys[i] - min) << 32) | i;
+            }
+            Arrays.sort(packed);
+            for (int i = 0; i < size; i++) {
+                positions[i] = (int) packed[i];
+            }
+        } else {
+            Integer[] boxed = new Integer[size];
+            for (int i = 0; i < size; i++) {
+                boxed[i] = i;
+            }
+            Arrays.sort(boxed, (a, b) -> keys[a] != keys[b] ? Long.compare(keys[a], keys[b]) : Integer.compare(a, b));
+            for (int i = 0; i < size; i++) {
+                positions[i] = boxed[i];
+            }
+        }
+        return positions;
+    }
+
+    private static long[] toLongs(int[] values) {
+        long[] longs = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            longs[i] = values[i];
+        }
+        return longs;
+    }
+
+    /**
+     * Returns the index of the first value that is greater than or equal to {@code key}
+     */
+    private static int lowerBound(long[] values, long key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first value that is greater than {@code key}
+     */
+    private static int upperBound(long[] values, long key) {
+        return lowerBound(values, key + 1);
+    }
+
+    private static int lowerBound(int[] values, int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+}
@@ -1,6 +1,16 @@
 package org.bytedream.untis4j.responseObjects.baseObjects;
 
 import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Predicate;
+import java.util.function.ToIntFunction;
+import java.util.function.UnaryOperator;
+
+import org.bytedream.untis4j.IntSet;
 
 import org.bytedream.untis4j.responseObjects.baseObjects.BaseResponseObjects.*;
 
@@ -20,6 +30,249 @@ public class BaseResponseLists {
      */
     public static class ResponseList<E> extends ArrayList<E> {
 
+        private int setCount = 0;
+        private volatile boolean immutable = false;
+        private int hashCode = 0;
+
+        /**
+         * Returns an immutable snapshot of this list. The snapshot has the same type as this list, shares the elements and all indexes which were already built,
+         * and every method which would modify it throws an {@link UnsupportedOperationException}.
+         * Because it can't change, it's safe to share it between threads and caches without defensive copies
+         *
+         * @return the immutable snapshot, or this list if it's already immutable
+         *
+         * @since 1.1
+         */
+        public <T extends ResponseList<E>> T toImmutable() {
+            if (immutable) {
+                return (T) this;
+            }
+
+            ResponseList<E> snapshot = copy();
+            snapshot.immutable = true;
+            return (T) snapshot;
+        }
+
+        /**
+         * Returns a mutable copy of this list. The copy shares the elements and the indexes with this list until it gets modified,
+         * so a cache refresh which changes only a few elements only has to copy the element references
+         *
+         * @return the mutable copy
+         *
+         * @since 1.1
+         */
+        public <T extends ResponseList<E>> T toMutable() {
+            return (T) copy();
+        }
+
+        /**
+         * Checks if the list is an immutable snapshot
+         *
+         * @return {@code true} if the list is immutable, {@code false} if not
+         *
+         * @see ResponseList#toImmutable()
+         *
+         * @since 1.1
+         */
+        public boolean isImmutable() {
+            return immutable;
+        }
+
+        private ResponseList<E> copy() {
+            ResponseList<E> copy = (ResponseList<E>) super.clone();
+            copy.immutable = false;
+            copy.trimToSize();
+            // the copy has the same elements, so it also has the same version and the indexes stay valid
+            copy.modCount = modCount;
+            copy.hashCode = 0;
+            return copy;
+        }
+
+        private void checkMutable() {
+            if (immutable) {
+                throw new UnsupportedOperationException("The list is immutable");
+            }
+        }
+
+        @Override
+        public int hashCode() {
+            if (!immutable) {
+                return super.hashCode();
+            }
+
+            int hash = hashCode;
+            if (hash == 0) {
+                hash = super.hashCode();
+                hashCode = hash;
+            }
+            return hash;
+        }
+
+        @Override
+        public E set(int index, E element) {
+            checkMutable();
+            setCount++;
+            return super.set(index, element);
+        }
+
+        @Override
+        public boolean add(E e) {
+            checkMutable();
+            return super.add(e);
+        }
+
+        @Override
+        public void add(int index, E element) {
+            checkMutable();
+            super.add(index, element);
+        }
+
+        @Override
+        public boolean addAll(Collection<? extends E> c) {
+            checkMutable();
+            return super.addAll(c);
+        }
+
+        @Override
+        public boolean addAll(int index, Collection<? extends E> c) {
+            checkMutable();
+            return super.addAll(index, c);
+        }
+
+        @Override
+        public E remove(int index) {
+            checkMutable();
+            return super.remove(index);
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            checkMutable();
+            return super.remove(o);
+        }
+
+        @Override
+        public boolean removeAll(Collection<?> c) {
+            checkMutable();
+            return super.removeAll(c);
+        }
+
+        @Override
+        public boolean retainAll(Collection<?> c) {
+            checkMutable();
+            return super.retainAll(c);
+        }
+
+        @Override
+        public boolean removeIf(Predicate<? super E> filter) {
+            checkMutable();
+            return super.removeIf(filter);
+        }
+
+        @Override
+        protected void removeRange(int fromIndex, int toIndex) {
+            checkMutable();
+            super.removeRange(fromIndex, toIndex);
+        }
+
+        @Override
+        public void replaceAll(UnaryOperator<E> operator) {
+            checkMutable();
+            super.replaceAll(operator);
+        }
+
+        @Override
+        public void sort(Comparator<? super E> c) {
+            checkMutable();
+            super.sort(c);
+        }
+
+        @Override
+        public void clear() {
+            checkMutable();
+            super.clear();
+        }
+
+        @Override
+        public void ensureCapacity(int minCapacity) {
+            checkMutable();
+            super.ensureCapacity(minCapacity);
+        }
+
+        @Override
+        public void trimToSize() {
+            checkMutable();
+            super.trimToSize();
+        }
+
+        @Override
+        public List<E> subList(int fromIndex, int toIndex) {
+            List<E> subList = super.subList(fromIndex, toIndex);
+            return immutable ? Collections.unmodifiableList(subList) : subList;
+        }
+
+        /**
+         * Returns a number which changes every time the list gets modified. Used to check if an index over the list is still up to date
+         *
+         * @return the current version of the list
+         *
+         * @since 1.1
+         */
+        protected long getVersion() {
+            return ((long) setCount << 32) | (modCount & 0xffffffffL);
+        }
+
+        /**
+         * Returns {@code index} if it's up to date, otherwise a new {@link TextIndex} over the given text of the elements
+         *
+         * @param index the current index, may be {@code null}
+         * @param text function which returns the indexed text of an element
+         * @return an up to date {@link TextIndex}
+         *
+         * @since 1.1
+         */
+        protected TextIndex getTextIndex(TextIndex index, Function<? super E, String> text) {
+            if (index == null || index.version != getVersion()) {
+                index = new TextIndex(this, text, getVersion());
+            }
+            return index;
+        }
+
+        /**
+         * Returns {@code index} if it's up to date, otherwise a new {@link IdIndex} over the given value of the elements
+         *
+         * @param index the current index, may be {@code null}
+         * @param value function which returns the indexed value of an element
+         * @return an up to date {@link IdIndex}
+         *
+         * @since 1.1
+         */
+        protected IdIndex getIdIndex(IdIndex index, ToIntFunction<? super E> value) {
+            if (index == null || index.version != getVersion()) {
+                index = new IdIndex(this, value, getVersion());
+            }
+            return index;
+        }
+
+        /**
+         * Adds the elements at the given positions to {@code list}
+         *
+         * @param list list to add the elements to
+         * @param positions positions of the elements
+         * @return {@code list}
+         *
+         * @since 1.1
+         */
+        protected <T extends ResponseList<E>> T select(T list, int[] positions) {
+            list.ensureCapacity(positions.length);
+
+            for (int position : positions) {
+                list.add(this.get(position));
+            }
+
+            return list;
+        }
+
     }
 
     /**
@@ -30,6 +283,11 @@ public class BaseResponseLists {
      */
     public static class NILResponseList<E extends NILResponseObject> extends ResponseList<E> {
 
+        private transient volatile TextIndex nameIndex = null;
+        private transient volatile TextIndex longNameIndex = null;
+        private transient volatile FuzzyIndex fuzzyIndex = null;
+        private transient volatile IdIndex idIndex = null;
+
         /**
          * Finds an element by its name
          *
@@ -51,7 +309,27 @@ public class BaseResponseLists {
          * @since 1.0
          */
         public E findById(int id) {
-            return this.stream().filter(responseObject -> responseObject.getId() == id).findAny().orElse(null);
+            int position = getIdIndex().getPosition(id);
+            return position < 0 ? null : this.get(position);
+        }
+
+        /**
+         * Finds elements by their ids in one pass
+         *
+         * @param ids ids of the elements you want to find
+         * @return a list with the element for every id, in the order of {@code ids}. Contains {@code null} for every id which has no element
+         *
+         * @since 1.1
+         */
+        public List<E> findByIds(int... ids) {
+            int[] positions = getIdIndex().getPositions(ids);
+            List<E> elements = new ArrayList<>(positions.length);
+
+            for (int position : positions) {
+                elements.add(position < 0 ? null : this.get(position));
+            }
+
+            return elements;
         }
 
         /**
@@ -75,13 +353,41 @@ public class BaseResponseLists {
          * @since 1.0
          */
         public <T extends NILResponseList<E>> T searchByName(String name) {
-            T nameList = (T) new NILResponseList<E>();
+            T nameList = newResult();
 
-            this.stream().filter(e -> e.getName().contains(name)).forEach(nameList::add);
+            for (int position : getNameIndex().searchBySubstring(name)) {
+                if (this.get(position).getName().contains(name)) {
+                    nameList.add(this.get(position));
+                }
+            }
 
             return nameList;
         }
 
+        /**
+         * Finds elements that have a word in their name which starts with {@code prefix}, ignoring case and diacritics
+         *
+         * @param prefix prefix of the elements you want to search
+         * @return {@link T} with elements that have a word in their name which starts with {@code prefix}
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchByNamePrefix(String prefix) {
+            return select(newResult(), getNameIndex().searchByPrefix(prefix));
+        }
+
+        /**
+         * Finds elements that have the {@code name} or a part of it in their name, ignoring case and diacritics
+         *
+         * @param name name of the element you want to search
+         * @return {@link T} with elements that have the {@code name} or a part of it in their name
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchByNameIgnoreCase(String name) {
+            return select(newResult(), getNameIndex().searchBySubstring(name));
+        }
+
         /**
          * Finds elements that have the {@code id} or a part of it in their id
          *
@@ -91,11 +397,32 @@ public class BaseResponseLists {
          * @since 1.0
          */
         public <T extends NILResponseList<E>> T searchById(int id) {
-            T idList = (T) new NILResponseList<E>();
+            return select(newResult(), getIdIndex().getPositionsByDigits(id));
+        }
 
-            this.stream().filter(e -> String.valueOf(e.getId()).contains(String.valueOf(id))).forEach(idList::add);
+        /**
+         * Finds elements that have one of the {@code ids} as id
+         *
+         * @param ids ids of the elements you want to search
+         * @return {@link T} with elements that have one of the {@code ids} as id
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchByIds(int... ids) {
+            return select(newResult(), getIdIndex().getAllPositions(IntSet.of(ids)));
+        }
 
-            return idList;
+        /**
+         * Finds elements that have an id between {@code from} and {@code to} (both inclusive)
+         *
+         * @param from smallest id of the elements you want to search
+         * @param to biggest id of the elements you want to search
+         * @return {@link T} with elements that have an id between {@code from} and {@code to}
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchByIdRange(int from, int to) {
+            return select(newResult(), getIdIndex().getPositionsInRange(from, to));
         }
 
         /**
@@ -107,13 +434,153 @@ public class BaseResponseLists {
          * @since 1.0
          */
         public <T extends NILResponseList<E>> T searchByLongName(String longName) {
-            T longNameList = (T) new NILResponseList<E>();
+            T longNameList = newResult();
 
-            this.stream().filter(e -> e.getName().contains(longName)).forEach(longNameList::add);
+            for (int position : getLongNameIndex().searchBySubstring(longName)) {
+                if (this.get(position).getLongName().contains(longName)) {
+                    longNameList.add(this.get(position));
+                }
+            }
 
             return longNameList;
         }
 
+        /**
+         * Finds elements that have a word in their long name which starts with {@code prefix}, ignoring case and diacritics
+         *
+         * @param prefix prefix of the elements you want to search
+         * @return {@link T} with elements that have a word in their long name which starts with {@code prefix}
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchByLongNamePrefix(String prefix) {
+            return select(newResult(), getLongNameIndex().searchByPrefix(prefix));
+        }
+
+        /**
+         * Finds elements that have the {@code longName} or a part of it in their long name, ignoring case and diacritics
+         *
+         * @param longName long name of the element you want to search
+         * @return {@link T} with elements that have the {@code longName} or a part of it in their long name
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchByLongNameIgnoreCase(String longName) {
+            return select(newResult(), getLongNameIndex().searchBySubstring(longName));
+        }
+
+        /**
+         * Finds elements whose name, long name or a word of them is similar to {@code query}, ignoring case and diacritics.
+         * The allowed edit distance depends on the length of the query
+         *
+         * @param query name or long name of the elements you want to search, may contain typos
+         * @return {@link T} with the matching elements, best match first
+         *
+         * @see FuzzyIndex#search(String)
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchFuzzy(String query) {
+            return select(newResult(), getFuzzyIndex().search(query));
+        }
+
+        /**
+         * Finds elements whose name, long name or a word of them has an edit distance of at most {@code maxDistance} to {@code query}, ignoring case and diacritics
+         *
+         * @param query name or long name of the elements you want to search, may contain typos
+         * @param maxDistance maximum edit distance
+         * @return {@link T} with the matching elements, best match first
+         *
+         * @since 1.1
+         */
+        public <T extends NILResponseList<E>> T searchFuzzy(String query, int maxDistance) {
+            return select(newResult(), getFuzzyIndex().search(query, maxDistance));
+        }
+
+        /**
+         * Creates a new, empty list of the same type as this list. The search methods return their results in such a list,
+         * so every subclass must override it and return an instance of itself
+         *
+         * @return the new list
+         *
+         * @since 1.1
+         */
+        protected NILResponseList<E> newList() {
+            return new NILResponseList<>();
+        }
+
+        @SuppressWarnings("unchecked")
+        private <T extends NILResponseList<E>> T newResult() {
+            // safe as long as the subclass overrides newList(), which is what the caller expects as result type
+            return (T) newList();
+        }
+
+        /**
+         * Returns the fuzzy index over the texts of the elements
+         *
+         * @return the fuzzy index over the texts of the elements
+         *
+         * @see NILResponseList#getFuzzyTexts(NILResponseObject)
+         *
+         * @since 1.1
+         */
+        public FuzzyIndex getFuzzyIndex() {
+            FuzzyIndex index = fuzzyIndex;
+            if (index == null || index.version != getVersion()) {
+                index = new FuzzyIndex(this, this::getFuzzyTexts, getVersion());
+                fuzzyIndex = index;
+            }
+            return index;
+        }
+
+        /**
+         * Returns the texts of an element which are used for the fuzzy search
+         *
+         * @param element element to get the texts of
+         * @return the name and the long name of the element
+         *
+         * @since 1.1
+         */
+        protected String[] getFuzzyTexts(E element) {
+            return new String[]{element.getName(), element.getLongName()};
+        }
+
+        /**
+         * Returns the index over the ids of the elements
+         *
+         * @return the index over the ids of the elements
+         *
+         * @since 1.1
+         */
+        public IdIndex getIdIndex() {
+            idIndex = getIdIndex(idIndex, NILResponseObject::getId);
+            return idIndex;
+        }
+
+        /**
+         * Returns the text index over the names of the elements
+         *
+         * @return the text index over the names of the elements
+         *
+         * @since 1.1
+         */
+        public TextIndex getNameIndex() {
+            nameIndex = getTextIndex(nameIndex, NILResponseObject::getName);
+            return nameIndex;
+        }
+
+        /**
+         * Returns the text index over the long names of the elements
+         *
+         * @return the text index over the long names of the elements
+         *
+         * @since 1.1
+         */
+        public TextIndex getLongNameIndex() {
+            longNameIndex = getTextIndex(longNameIndex, NILResponseObject::getLongName);
+            return longNameIndex;
+        }
+
     }
 
     /**
@@ -144,14 +611,20 @@ public class BaseResponseLists {
          *
          * @since 1.0
          */
+        @SuppressWarnings("unchecked")
         public <T extends NAILResponseList<E>> T searchByActive(boolean active) {
-            T activeList = (T) new NAILResponseList<E>();
+            T activeList = (T) newList();
 
             this.stream().filter(e -> e.isActive() == active).forEach(activeList::add);
 
             return activeList;
         }
 
+        @Override
+        protected NAILResponseList<E> newList() {
+            return new NAILResponseList<>();
+        }
+
     }
 
 }
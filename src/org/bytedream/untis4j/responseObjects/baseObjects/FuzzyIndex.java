@@ -0,0 +1,234 @@
+package org.bytedream.untis4j.responseObjects.baseObjects;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Fuzzy text index over the elements of a response list.
+ *
+ * <p>Every text of an element gets folded (see {@link TextIndex#fold(String)}) and is indexed as a whole and word by word in a BK-tree, a tree in which the children of a key are grouped by their edit distance to it.
+ * Because the edit (Levenshtein) distance is a metric, a search with a maximum distance only has to visit the children whose distance is within the maximum distance of the distance to the query.
+ * Matches are ranked by their distance, then by keys which start with the query (for type-ahead) and then by the length difference. The index is immutable, the list which owns it rebuilds it after modifications</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class FuzzyIndex {
+
+    final long version;
+
+    private final String[] keys;
+    private final int[][] keyPositions;
+    private final int[][] children;
+    private final int[][] childDistances;
+    private final int[] maxChildDistances;
+    private final int elementCount;
+
+    /**
+     * Initialize the {@link FuzzyIndex} class
+     *
+     * @param elements elements to index
+     * @param texts function which returns all texts of an element
+     * @param version version of the list when the index was built
+     */
+    <E> FuzzyIndex(List<E> elements, Function<? super E, String[]> texts, long version) {
+        this.version = version;
+        this.elementCount = elements.size();
+
+        HashMap<String, int[]> positionsByKey = new HashMap<>();
+        List<String> keyList = new ArrayList<>();
+        for (int i = 0; i < elements.size(); i++) {
+            for (String text : texts.apply(elements.get(i))) {
+                String folded = TextIndex.fold(text);
+                addKey(positionsByKey, keyList, folded, i);
+                for (String word : folded.split("[^\\p{L}\\p{N}]+")) {
+                    addKey(positionsByKey, keyList, word, i);
+                }
+            }
+        }
+
+        int size = keyList.size();
+        keys = keyList.toArray(new String[0]);
+        keyPositions = new int[size][];
+        children = new int[size][];
+        childDistances = new int[size][];
+        maxChildDistances = new int[size];
+        for (int i = 0; i < size; i++) {
+            keyPositions[i] = positionsByKey.get(keys[i]);
+            children[i] = new int[0];
+            childDistances[i] = new int[0];
+        }
+
+        for (int i = 1; i < size; i++) {
+            int node = 0;
+            while (true) {
+                int distance = distance(keys[i], keys[node], Integer.MAX_VALUE);
+                int child = childWithDistance(node, distance);
+                if (child < 0) {
+                    children[node] = Arrays.copyOf(children[node], children[node].length + 1);
+                    childDistances[node] = Arrays.copyOf(childDistances[node], childDistances[node].length + 1);
+                    children[node][children[node].length - 1] = i;
+                    childDistances[node][childDistances[node].length - 1] = distance;
+                    maxChildDistances[node] = Math.max(maxChildDistances[node], distance);
+                    break;
+                }
+                node = child;
+            }
+        }
+    }
+
+    /**
+     * Returns the positions of all elements with a text or word whose edit distance to {@code query} is not bigger than a distance depending on the query length
+     * (0 for up to two characters, 1 for up to five characters and 2 for longer queries)
+     *
+     * @see FuzzyIndex#search(String, int)
+     *
+     * @since 1.1
+     */
+    public int[] search(String query) {
+        int length = TextIndex.fold(query).length();
+        return search(query, length <= 2 ? 0 : length <= 5 ? 1 : 2);
+    }
+
+    /**
+     * Returns the positions of all elements with a text or word whose edit distance to {@code query} is not bigger than {@code maxDistance}.
+     * The query gets folded before
+     *
+     * @param query text to search
+     * @param maxDistance maximum edit distance
+     * @return the positions of the matching elements, best match first
+     *
+     * @since 1.1
+     */
+    public int[] search(String query, int maxDistance) {
+        String foldedQuery = TextIndex.fold(query);
+        if (keys.length == 0) {
+            return new int[0];
+        }
+
+        // best rank for every element, lower is better
+        long[] ranks = new long[elementCount];
+        Arrays.fill(ranks, Long.MAX_VALUE);
+
+        int[] stack = new int[Math.max(16, keys.length)];
+        int stackSize = 0;
+        stack[stackSize++] = 0;
+        while (stackSize > 0) {
+            int node = stack[--stackSize];
+            // if the distance is bigger than this, neither the node nor one of its children can match
+            int distance = distance(foldedQuery, keys[node], maxChildDistances[node] + maxDistance);
+
+            if (distance <= maxDistance) {
+                long rank = ((long) distance << 17)
+                        | ((keys[node].startsWith(foldedQuery) ? 0L : 1L) << 16)
+                        | Math.min(Math.abs(keys[node].length() - foldedQuery.length()), 0xffff);
+                for (int position : keyPositions[node]) {
+                    ranks[position] = Math.min(ranks[position], rank);
+                }
+            }
+
+            for (int i = 0; i < children[node].length; i++) {
+                if (Math.abs(childDistances[node][i] - distance) <= maxDistance) {
+                    stack[stackSize++] = children[node][i];
+                }
+            }
+        }
+
+        int count = 0;
+        for (long rank : ranks) {
+            if (rank != Long.MAX_VALUE) {
+                count++;
+            }
+        }
+
+        // (rank, position) pairs packed into longs
+        long[] matches = new long[count];
+        count = 0;
+        for (int position = 0; position < ranks.length; position++) {
+            if (ranks[position] != Long.MAX_VALUE) {
+                matches[count++] = (ranks[position] << 21) | position;
+            }
+        }
+        Arrays.sort(matches);
+
+        int[] positions = new int[count];
+        for (int i = 0; i < count; i++) {
+            positions[i] = (int) (matches[i] & 0x1fffff);
+        }
+        return positions;
+    }
+
+    /**
+     * Returns the edit (Levenshtein) distance between two texts
+     *
+     * @param a first text
+     * @param b second text
+     * @param limit the computation stops as soon as the distance is known to be bigger than {@code limit}
+     * @return the edit distance, or a value bigger than {@code limit}
+     *
+     * @since 1.1
+     */
+    public static int distance(String a, String b, int limit) {
+        if (a.length() > b.length()) {
+            String tmp = a;
+            a = b;
+            b = tmp;
+        }
+        if (b.length() - a.length() > limit) {
+            return b.length() - a.length();
+        }
+
+        int[] previous = new int[a.length() + 1];
+        int[] current = new int[a.length() + 1];
+        for (int i = 0; i <= a.length(); i++) {
+            previous[i] = i;
+        }
+
+        for (int j = 1; j <= b.length(); j++) {
+            current[0] = j;
+            int rowMin = current[0];
+            char bChar = b.charAt(j - 1);
+            for (int i = 1; i <= a.length(); i++) {
+                int cost = a.charAt(i - 1) == bChar ? 0 : 1;
+                current[i] = Math.min(Math.min(current[i - 1] + 1, previous[i] + 1), previous[i - 1] + cost);
+                rowMin = Math.min(rowMin, current[i]);
+            }
+            if (rowMin > limit) {
+                return rowMin;
+            }
+            int[] tmp = previous;
+            previous = current;
+            current = tmp;
+        }
+        return previous[a.length()];
+    }
+
+    private int childWithDistance(int node, int distance) {
+        for (int i = 0; i < childDistances[node].length; i++) {
+            if (childDistances[node][i] == distance) {
+                return children[node][i];
+            }
+        }
+        return -1;
+    }
+
+    private static void addKey(HashMap<String, int[]> positionsByKey, List<String> keyList, String key, int position) {
+        if (key.isEmpty()) {
+            return;
+        }
+
+        int[] positions = positionsByKey.get(key);
+        if (positions == null) {
+            keyList.add(key);
+            positionsByKey.put(key, new int[]{position});
+        } else if (positions[positions.length - 1] != position) {
+            positions = Arrays.copyOf(positions, positions.length + 1);
+            positions[positions.length - 1] = position;
+            positionsByKey.put(key, positions);
+        }
+    }
+
+}
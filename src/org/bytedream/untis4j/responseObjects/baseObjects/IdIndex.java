@@ -0,0 +1,227 @@
+package org.bytedream.untis4j.responseObjects.baseObjects;
+
+import org.bytedream.untis4j.IntSet;
+import org.bytedream.untis4j.UntisUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.ToIntFunction;
+
+/**
+ * Index over one numeric property (e.g. the id) of the elements of a response list.
+ *
+ * <p>The values are stored sorted in a primitive array together with the positions of their elements, so exact and range lookups are binary searches and nothing gets boxed or converted to a string.
+ * If the values are dense enough, an additional direct lookup table maps every value to the first position which has it.
+ * Queries return the sorted positions of the matching elements. The index is immutable, the list which owns it rebuilds it after modifications</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class IdIndex {
+
+    private static final int[] EMPTY = new int[0];
+
+    final long version;
+
+    private final int[] values;
+    private final int[] positions;
+    private final int[] elementValues;
+    private final int min;
+    private final int[] firstPositions;
+
+    /**
+     * Initialize the {@link IdIndex} class
+     *
+     * @param elements elements to index
+     * @param value function which returns the indexed value of an element
+     * @param version version of the list when the index was built
+     */
+    <E> IdIndex(List<E> elements, ToIntFunction<? super E> value, long version) {
+        this.version = version;
+
+        int size = elements.size();
+        elementValues = new int[size];
+
+        // (value, position) pairs packed into longs, sorting them groups the positions by value
+        long[] pairs = new long[size];
+        for (int i = 0; i < size; i++) {
+            elementValues[i] = value.applyAsInt(elements.get(i));
+            pairs[i] = ((long) elementValues[i] << 32) | i;
+        }
+        Arrays.sort(pairs);
+
+        values = new int[size];
+        positions = new int[size];
+        for (int i = 0; i < size; i++) {
+            values[i] = (int) (pairs[i] >> 32);
+            positions[i] = (int) pairs[i];
+        }
+
+        long range = size == 0 ? Long.MAX_VALUE : (long) values[size - 1] - values[0] + 1;
+        if (range <= 4L * size + 64) {
+            min = values[0];
+            firstPositions = new int[(int) range];
+            Arrays.fill(firstPositions, -1);
+            for (int i = size - 1; i >= 0; i--) {
+                firstPositions[values[i] - min] = positions[i];
+            }
+        } else {
+            min = 0;
+            firstPositions = null;
+        }
+    }
+
+    /**
+     * Returns the position of the first element which has the given value
+     *
+     * @param value value to search
+     * @return the position of the first element with the value, -1 if no element has it
+     *
+     * @since 1.1
+     */
+    public int getPosition(int value) {
+        if (firstPositions != null) {
+            long index = (long) value - min;
+            return index < 0 || index >= firstPositions.length ? -1 : firstPositions[(int) index];
+        }
+
+        int index = lowerBound(value);
+        return index < values.length && values[index] == value ? positions[index] : -1;
+    }
+
+    /**
+     * Returns the positions of the first elements which have the given values, in one pass
+     *
+     * @param values values to search
+     * @return for every value the position of the first element which has it, -1 if no element has it
+     *
+     * @since 1.1
+     */
+    public int[] getPositions(int[] values) {
+        int[] result = new int[values.length];
+
+        for (int i = 0; i < values.length; i++) {
+            result[i] = getPosition(values[i]);
+        }
+
+        return result;
+    }
+
+    /**
+     * Returns the positions of all elements which have the given value
+     *
+     * @param value value to search
+     * @return the sorted positions of the matching elements
+     *
+     * @since 1.1
+     */
+    public int[] getAllPositions(int value) {
+        return getPositionsInRange(value, value);
+    }
+
+    /**
+     * Returns the positions of all elements which have one of the given values
+     *
+     * @param values values to search
+     * @return the sorted positions of the matching elements
+     *
+     * @since 1.1
+     */
+    public int[] getAllPositions(IntSet values) {
+        int[] result = new int[Math.min(values.size(), positions.length)];
+        int count = 0;
+
+        for (int i = 0; i < values.size(); i++) {
+            int from = lowerBound(values.get(i));
+            int to = upperBound(values.get(i));
+            for (int j = from; j < to; j++) {
+                if (count == result.length) {
+                    result = Arrays.copyOf(result, Math.min(count * 2, positions.length));
+                }
+                result[count++] = positions[j];
+            }
+        }
+
+        result = Arrays.copyOf(result, count);
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the positions of all elements whose value is between {@code from} and {@code to} (both inclusive)
+     *
+     * @param from smallest value to search
+     * @param to biggest value to search
+     * @return the sorted positions of the matching elements
+     *
+     * @since 1.1
+     */
+    public int[] getPositionsInRange(int from, int to) {
+        if (to < from) {
+            return EMPTY;
+        }
+
+        int[] result = Arrays.copyOfRange(positions, lowerBound(from), upperBound(to));
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Returns the positions of all elements whose value contains the digits of {@code digits}
+     *
+     * @param digits digits to search
+     * @return the sorted positions of the matching elements
+     *
+     * @see UntisUtils#containsDigits(int, int)
+     *
+     * @since 1.1
+     */
+    public int[] getPositionsByDigits(int digits) {
+        int[] result = new int[elementValues.length];
+        int count = 0;
+
+        for (int i = 0; i < elementValues.length; i++) {
+            if (UntisUtils.containsDigits(elementValues[i], digits)) {
+                result[count++] = i;
+            }
+        }
+
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Returns the number of indexed elements
+     *
+     * @return the number of indexed elements
+     *
+     * @since 1.1
+     */
+    public int size() {
+        return elementValues.length;
+    }
+
+    /**
+     * Returns the index of the first value that is greater than or equal to {@code key}
+     */
+    private int lowerBound(int key) {
+        int low = 0;
+        int high = values.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (values[middle] < key) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * Returns the index of the first value that is greater than {@code key}
+     */
+    private int upperBound(int key) {
+        return key == Integer.MAX_VALUE ? values.length : lowerBound(key + 1);
+    }
+
+}
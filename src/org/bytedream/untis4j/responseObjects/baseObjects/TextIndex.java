@@ -0,0 +1,304 @@
+package org.bytedream.untis4j.responseObjects.baseObjects;
+
+import java.text.Normalizer;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Text index over one string property of the elements of a response list.
+ *
+ * <p>All texts are folded (lower case, without diacritics, see {@link TextIndex#fold(String)}) once when the index gets built.
+ * Word prefixes are looked up by binary search in the sorted word suffixes of the texts, substrings with at least three characters by intersecting the posting lists of their trigrams.
+ * Queries return the sorted positions of the matching elements. The index is immutable, the list which owns it rebuilds it after modifications</p>
+ *
+ * @version 1.0
+ * @since 1.1
+ */
+public final class TextIndex {
+
+    private static final int GRAM_LENGTH = 3;
+    private static final int[] EMPTY = new int[0];
+
+    final long version;
+
+    private final String[] folded;
+    private final String[] words;
+    private final int[] wordPositions;
+    private final HashMap<Long, int[]> grams = new HashMap<>();
+
+    /**
+     * Initialize the {@link TextIndex} class
+     *
+     * @param elements elements to index
+     * @param text function which returns the text of an element
+     * @param version version of the list when the index was built
+     */
+    <E> TextIndex(List<E> elements, Function<? super E, String> text, long version) {
+        this.version = version;
+
+        int size = elements.size();
+        folded = new String[size];
+
+        int wordCount = 0;
+        for (int i = 0; i < size; i++) {
+            folded[i] = fold(text.apply(elements.get(i)));
+            wordCount += wordStarts(folded[i], null);
+        }
+
+        // every word start of a text is stored as suffix of the text, so a word prefix query is a range in the sorted suffixes
+        Integer[] order = new Integer[wordCount];
+        String[] suffixes = new String[wordCount];
+        int[] suffixPositions = new int[wordCount];
+        int[] starts = new int[16];
+        int word = 0;
+        for (int i = 0; i < size; i++) {
+            if (starts.length < folded[i].length()) {
+                starts = new int[folded[i].length()];
+            }
+            int count = wordStarts(folded[i], starts);
+            for (int j = 0; j < count; j++) {
+                suffixes[word] = folded[i].substring(starts[j]);
+                suffixPositions[word] = i;
+                order[word] = word;
+                word++;
+            }
+        }
+        Arrays.sort(order, (a, b) -> {
+            int compare = suffixes[a].compareTo(suffixes[b]);
+            return compare != 0 ? compare : Integer.compare(suffixPositions[a], suffixPositions[b]);
+        });
+
+        words = new String[wordCount];
+        wordPositions = new int[wordCount];
+        for (int i = 0; i < wordCount; i++) {
+            words[i] = suffixes[order[i]];
+            wordPositions[i] = suffixPositions[order[i]];
+        }
+
+        HashMap<Long, int[]> gramPositions = new HashMap<>();
+        HashMap<Long, Integer> gramCounts = new HashMap<>();
+        for (int i = 0; i < size; i++) {
+            String value = folded[i];
+            for (int j = 0; j + GRAM_LENGTH <= value.length(); j++) {
+                Long gram = gram(value, j);
+                int[] positions = gramPositions.get(gram);
+                int count = gramCounts.getOrDefault(gram, 0);
+                if (positions == null) {
+                    positions = new int[4];
+                } else if (positions[count - 1] == i) {
+                    continue;
+                } else if (count == positions.length) {
+                    positions = Arrays.copyOf(positions, count * 2);
+                }
+                positions[count] = i;
+                gramPositions.put(gram, positions);
+                gramCounts.put(gram, count + 1);
+            }
+        }
+        gramPositions.forEach((gram, positions) -> grams.put(gram, Arrays.copyOf(positions, gramCounts.get(gram))));
+    }
+
+    /**
+     * Returns the positions of all elements which have a word that starts with {@code prefix}. The prefix gets folded before
+     *
+     * @param prefix prefix to search
+     * @return the sorted positions of the matching elements
+     *
+     * @since 1.1
+     */
+    public int[] searchByPrefix(String prefix) {
+        String foldedPrefix = fold(prefix);
+        if (foldedPrefix.isEmpty()) {
+            return allPositions();
+        }
+
+        int from = lowerBound(foldedPrefix);
+        int to = from;
+        while (to < words.length && words[to].startsWith(foldedPrefix)) {
+            to++;
+        }
+
+        int[] positions = Arrays.copyOfRange(wordPositions, from, to);
+        Arrays.sort(positions);
+        return distinct(positions);
+    }
+
+    /**
+     * Returns the positions of all elements which contain {@code text}. The text gets folded before
+     *
+     * @param text text to search
+     * @return the sorted positions of the matching elements
+     *
+     * @since 1.1
+     */
+    public int[] searchBySubstring(String text) {
+        String foldedText = fold(text);
+        if (foldedText.length() < GRAM_LENGTH) {
+            return scan(foldedText);
+        }
+
+        int[] candidates = null;
+        for (int i = 0; i + GRAM_LENGTH <= foldedText.length(); i++) {
+            int[] positions = grams.get(gram(foldedText, i));
+            if (positions == null) {
+                return EMPTY;
+            }
+            candidates = candidates == null ? positions : intersect(candidates, positions);
+            if (candidates.length == 0) {
+                return EMPTY;
+            }
+        }
+
+        // the trigrams may occur in the text, but not next to each other
+        int[] positions = new int[candidates.length];
+        int count = 0;
+        for (int candidate : candidates) {
+            if (folded[candidate].contains(foldedText)) {
+                positions[count++] = candidate;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    /**
+     * Returns the folded text of an element
+     *
+     * @param position position of the element
+     * @return the folded text
+     *
+     * @since 1.1
+     */
+    public String getFolded(int position) {
+        return folded[position];
+    }
+
+    /**
+     * Returns the number of indexed elements
+     *
+     * @return the number of indexed elements
+     *
+     * @since 1.1
+     */
+    public int size() {
+        return folded.length;
+    }
+
+    /**
+     * Folds a text for case and diacritics insensitive comparison.
+     *
+     * <p>Every character gets decomposed, combining marks are dropped and the rest is converted to lower case, so e.g. "M&uuml;ller" and "MULLER" are both folded to "muller".
+     * Because every character is folded on its own, a text which contains another text still contains it after both are folded</p>
+     *
+     * @param text text to fold, {@code null} is treated as empty text
+     * @return the folded text
+     *
+     * @since 1.1
+     */
+    public static String fold(String text) {
+        if (text == null) {
+            return "";
+        }
+
+        boolean plain = true;
+        for (int i = 0; i < text.length() && plain; i++) {
+            char c = text.charAt(i);
+            plain = c < 0x80 && !(c >= 'A' && c <= 'Z');
+        }
+        if (plain) {
+            return text;
+        }
+
+        String decomposed = Normalizer.normalize(text, Normalizer.Form.NFD);
+        StringBuilder builder = new StringBuilder(decomposed.length());
+        for (int i = 0; i < decomposed.length(); i++) {
+            char c = decomposed.charAt(i);
+            int type = Character.getType(c);
+            if (type != Character.NON_SPACING_MARK && type != Character.COMBINING_SPACING_MARK && type != Character.ENCLOSING_MARK) {
+                builder.append(Character.toLowerCase(c));
+            }
+        }
+        return builder.toString();
+    }
+
+    private int[] scan(String foldedText) {
+        int[] positions = new int[folded.length];
+        int count = 0;
+        for (int i = 0; i < folded.length; i++) {
+            if (folded[i].contains(foldedText)) {
+                positions[count++] = i;
+            }
+        }
+        return Arrays.copyOf(positions, count);
+    }
+
+    private int[] allPositions() {
+        int[] positions = new int[folded.length];
+        for (int i = 0; i < positions.length; i++) {
+            positions[i] = i;
+        }
+        return positions;
+    }
+
+    private int lowerBound(String key) {
+        int low = 0;
+        int high = words.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (words[middle].compareTo(key) < 0) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private static int wordStarts(String text, int[] starts) {
+        int count = 0;
+        for (int i = 0; i < text.length(); i++) {
+            if (Character.isLetterOrDigit(text.charAt(i)) && (i == 0 || !Character.isLetterOrDigit(text.charAt(i - 1)))) {
+                if (starts != null) {
+                    starts[count] = i;
+                }
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private static Long gram(String text, int index) {
+        return ((long) text.charAt(index) << 32) | ((long) text.charAt(index + 1) << 16) | text.charAt(index + 2);
+    }
+
+    private static int[] distinct(int[] sorted) {
+        int count = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (i == 0 || sorted[i] != sorted[i - 1]) {
+                sorted[count++] = sorted[i];
+            }
+        }
+        return count == sorted.length ? sorted : Arrays.copyOf(sorted, count);
+    }
+
+    private static int[] intersect(int[] a, int[] b) {
+        int[] result = new int[Math.min(a.length, b.length)];
+        int count = 0;
+        int i = 0;
+        int j = 0;
+        while (i < a.length && j < b.length) {
+            if (a[i] == b[j]) {
+                result[count++] = a[i];
+                i++;
+                j++;
+            } else if (a[i] < b[j]) {
+                i++;
+            } else {
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+}